@@ -0,0 +1,47 @@
+package io.github.cristinarubylee.benchmarks;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGraphics;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * Shared setup for benchmarks that run without a window.
+ */
+final class BenchmarkSupport {
+    private static boolean initialized;
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Loads the native libraries and installs a GL that ignores every call,
+     * so textures can be created without a GL context.
+     */
+    static synchronized void init() {
+        if (initialized) {
+            return;
+        }
+        GdxNativesLoader.load();
+        Box2D.init();
+
+        GL20 gl = (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[]{GL20.class},
+            (proxy, method, args) -> defaultValue(method.getReturnType()));
+        Gdx.gl = gl;
+        Gdx.gl20 = gl;
+        Gdx.graphics = new MockGraphics();
+        initialized = true;
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0f;
+        if (type == double.class) return 0d;
+        return null;
+    }
+}
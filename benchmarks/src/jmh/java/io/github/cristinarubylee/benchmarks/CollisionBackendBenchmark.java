@@ -0,0 +1,55 @@
+package io.github.cristinarubylee.benchmarks;
+
+import com.badlogic.gdx.backends.headless.mock.audio.MockSound;
+import io.github.cristinarubylee.controllers.CollisionMode;
+import io.github.cristinarubylee.controllers.GameplayController;
+import io.github.cristinarubylee.models.MotionMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a full simulation step when Box2D finds overlaps between sensor fixtures versus
+ * when bodies have no fixtures and overlaps are found on a spatial hash.
+ *
+ * As in {@link MotionBenchmark}, the simulation is settled into its steady state first.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CollisionBackendBenchmark {
+    // Long enough for formations to cross the whole screen
+    private static final int SETTLE_TICKS = 600;
+
+    @Param({"BOX2D", "SPATIAL_HASH"})
+    public CollisionMode collision;
+
+    /** Formations per spawn; about 16 nightmares are alive per formation in the steady state. */
+    @Param({"1", "10", "50"})
+    public int spawn;
+
+    private GameplayController gameplay;
+    private int tick;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkSupport.init();
+        gameplay = new GameplayController(16, 10, null, null, null, new MockSound(), 1,
+            MotionMode.KINEMATIC, collision);
+        gameplay.setSpawnMultiplier(spawn);
+        for (int i = 0; i < SETTLE_TICKS; i++) {
+            tick();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        gameplay.dispose();
+    }
+
+    @Benchmark
+    public void tick() {
+        tick++;
+        gameplay.tick((tick / 90) % 2 == 0 ? 1 : -1, true);
+    }
+}
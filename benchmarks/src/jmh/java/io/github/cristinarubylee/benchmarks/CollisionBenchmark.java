@@ -0,0 +1,79 @@
+package io.github.cristinarubylee.benchmarks;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.World;
+import io.github.cristinarubylee.controllers.CollisionController;
+import io.github.cristinarubylee.controllers.SpatialHashCollisionBackend;
+import io.github.cristinarubylee.controllers.WorldCommandBuffer;
+import io.github.cristinarubylee.models.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of resolving contacts once a backend has found them.
+ *
+ * A native {@code Contact} cannot be created outside a world step, so this queues contacts
+ * through {@link CollisionController#queueContact}, as every backend does, then resolves them
+ * and applies the deferred destroy commands they record.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CollisionBenchmark {
+
+    /** Number of contacts resolved per operation. */
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int count;
+
+    private World world;
+    private WorldCommandBuffer commands;
+    private CollisionController controller;
+    private int[] idsA;
+    private int[] idsB;
+    private short[] categoriesA;
+    private short[] categoriesB;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkSupport.init();
+        world = new World(new Vector2(), false);
+        // Revive objects instead of pooling them so every iteration resolves the same contacts
+        commands = new WorldCommandBuffer(object -> object.setDestroyed(false));
+        // Contacts are fed in directly, so the backend never runs
+        EntityStore entities = new EntityStore();
+        controller = new CollisionController(commands, new SpatialHashCollisionBackend(), entities);
+
+        Player player = new Player(entities, world, 1, 5);
+        idsA = new int[count];
+        idsB = new int[count];
+        categoriesA = new short[count];
+        categoriesB = new short[count];
+        for (int i = 0; i < count; i++) {
+            Nightmare nightmare = new Nightmare(entities, world, 8, 5);
+            GameObject other = i % 4 == 0 ? player : new Photon(entities, world, 8, 5);
+
+            // Mix the fixture order, as Box2D does not guarantee one
+            GameObject a = i % 2 == 0 ? nightmare : other;
+            GameObject b = i % 2 == 0 ? other : nightmare;
+            idsA[i] = a.getId();
+            idsB[i] = b.getId();
+            categoriesA[i] = a.getCategoryBits();
+            categoriesB[i] = b.getCategoryBits();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        world.dispose();
+    }
+
+    @Benchmark
+    public void handleContacts() {
+        for (int i = 0; i < count; i++) {
+            controller.queueContact(idsA[i], categoriesA[i], idsB[i], categoriesB[i]);
+        }
+        controller.resolve();
+        commands.execute();
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.cristinarubylee.benchmarks;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.World;
+import io.github.cristinarubylee.models.EntityStore;
+import io.github.cristinarubylee.models.GameObject;
+import io.github.cristinarubylee.models.Photon;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of moving game objects, which writes through to their Box2D bodies.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GameObjectBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int count;
+
+    private World world;
+    private GameObject[] objects;
+    private final Vector2 offset = new Vector2(0.01f, 0.01f);
+    private float direction = 1;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkSupport.init();
+        world = new World(new Vector2(), false);
+        EntityStore entities = new EntityStore();
+        objects = new GameObject[count];
+        for (int i = 0; i < count; i++) {
+            objects[i] = new Photon(entities, world, (i % 100) * 0.16f, (i / 100 % 100) * 0.1f);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        world.dispose();
+    }
+
+    @Benchmark
+    public void setXY() {
+        // Alternate direction so objects stay in place
+        direction = -direction;
+        float step = direction * 0.01f;
+        for (int i = 0; i < count; i++) {
+            GameObject object = objects[i];
+            object.setX(object.getX() + step);
+            object.setY(object.getY() - step);
+        }
+    }
+
+    @Benchmark
+    public void translate() {
+        // Alternate direction so objects stay in place
+        direction = -direction;
+        offset.set(direction * 0.01f, direction * 0.01f);
+        for (int i = 0; i < count; i++) {
+            objects[i].translate(offset);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.cristinarubylee.benchmarks;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import io.github.cristinarubylee.controllers.FormationUpdater;
+import io.github.cristinarubylee.models.EntityStore;
+import io.github.cristinarubylee.models.GameObjectPool;
+import io.github.cristinarubylee.models.Nightmare;
+import io.github.cristinarubylee.models.NightmareQueue;
+import io.github.cristinarubylee.parallel.ForkJoinRunner;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of updating every formation once, as done each frame by the gameplay controller: one
+ * formation after another, and through a {@link FormationUpdater} on the common fork-join pool,
+ * which goes parallel from {@value FormationUpdater#PARALLEL_FORMATIONS} formations on.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NightmareQueueBenchmark {
+    private static final float DELTA = 1 / 60f;
+
+    /** Total number of nightmares. */
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int count;
+
+    /** Pattern of every formation. */
+    @Param({"CIRCLE"})
+    public NightmareQueue.NightmareType pattern;
+
+    /** Members per formation. */
+    @Param({"8"})
+    public int members;
+
+    private World world;
+    private Array<NightmareQueue> queues;
+    private FormationUpdater parallel;
+    private float direction = 1;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkSupport.init();
+        world = new World(new Vector2(), false);
+        EntityStore entities = new EntityStore();
+        GameObjectPool<Nightmare> pool = new GameObjectPool<>(world, (w, x, y) -> new Nightmare(entities, w, x, y));
+        RandomXS128 random = new RandomXS128(1);
+
+        queues = new Array<>();
+        for (int i = 0; i < Math.max(1, count / members); i++) {
+            NightmareQueue queue = new NightmareQueue(pool, null);
+            queue.spawn(2 + random.nextFloat() * 12, 2 + random.nextFloat() * 6, pattern, members,
+                NightmareQueue.DEFAULT_SPEED);
+            queues.add(queue);
+        }
+        parallel = new FormationUpdater(new ForkJoinRunner());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        world.dispose();
+    }
+
+    @Benchmark
+    public void update() {
+        // Alternate direction so formations oscillate in place instead of leaving the screen
+        direction = -direction;
+        for (int i = 0; i < queues.size; i++) {
+            queues.get(i).update(direction * DELTA);
+        }
+    }
+
+    @Benchmark
+    public void updateParallel() {
+        direction = -direction;
+        parallel.update(queues, direction * DELTA);
+    }
+}
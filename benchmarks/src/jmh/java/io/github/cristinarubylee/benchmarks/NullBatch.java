@@ -0,0 +1,72 @@
+package io.github.cristinarubylee.benchmarks;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Affine2;
+import com.badlogic.gdx.math.Matrix4;
+
+/**
+ * A {@link Batch} that only counts draw calls, so drawing code can be measured without a GPU.
+ */
+class NullBatch implements Batch {
+    private final Color color = new Color(Color.WHITE);
+    private final Matrix4 projection = new Matrix4();
+    private final Matrix4 transform = new Matrix4();
+    private boolean drawing;
+    int draws;
+
+    @Override public void begin() { drawing = true; }
+    @Override public void end() { drawing = false; }
+    @Override public void setColor(Color tint) { color.set(tint); }
+    @Override public void setColor(float r, float g, float b, float a) { color.set(r, g, b, a); }
+    @Override public Color getColor() { return color; }
+    @Override public void setPackedColor(float packedColor) { Color.abgr8888ToColor(color, packedColor); }
+    @Override public float getPackedColor() { return color.toFloatBits(); }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float originX, float originY, float width, float height,
+                     float scaleX, float scaleY, float rotation, int srcX, int srcY, int srcWidth, int srcHeight,
+                     boolean flipX, boolean flipY) { draws++; }
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height, int srcX, int srcY,
+                     int srcWidth, int srcHeight, boolean flipX, boolean flipY) { draws++; }
+    @Override
+    public void draw(Texture texture, float x, float y, int srcX, int srcY, int srcWidth, int srcHeight) { draws++; }
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height, float u, float v,
+                     float u2, float v2) { draws++; }
+    @Override public void draw(Texture texture, float x, float y) { draws++; }
+    @Override public void draw(Texture texture, float x, float y, float width, float height) { draws++; }
+    @Override public void draw(Texture texture, float[] spriteVertices, int offset, int count) { draws++; }
+    @Override public void draw(TextureRegion region, float x, float y) { draws++; }
+    @Override public void draw(TextureRegion region, float x, float y, float width, float height) { draws++; }
+    @Override
+    public void draw(TextureRegion region, float x, float y, float originX, float originY, float width,
+                     float height, float scaleX, float scaleY, float rotation) { draws++; }
+    @Override
+    public void draw(TextureRegion region, float x, float y, float originX, float originY, float width,
+                     float height, float scaleX, float scaleY, float rotation, boolean clockwise) { draws++; }
+    @Override public void draw(TextureRegion region, float width, float height, Affine2 transform) { draws++; }
+
+    @Override public void flush() { }
+    @Override public void disableBlending() { }
+    @Override public void enableBlending() { }
+    @Override public void setBlendFunction(int srcFunc, int dstFunc) { }
+    @Override public void setBlendFunctionSeparate(int srcColor, int dstColor, int srcAlpha, int dstAlpha) { }
+    @Override public int getBlendSrcFunc() { return 0; }
+    @Override public int getBlendDstFunc() { return 0; }
+    @Override public int getBlendSrcFuncAlpha() { return 0; }
+    @Override public int getBlendDstFuncAlpha() { return 0; }
+    @Override public Matrix4 getProjectionMatrix() { return projection; }
+    @Override public Matrix4 getTransformMatrix() { return transform; }
+    @Override public void setProjectionMatrix(Matrix4 matrix) { projection.set(matrix); }
+    @Override public void setTransformMatrix(Matrix4 matrix) { transform.set(matrix); }
+    @Override public void setShader(ShaderProgram shader) { }
+    @Override public ShaderProgram getShader() { return null; }
+    @Override public boolean isBlendingEnabled() { return true; }
+    @Override public boolean isDrawing() { return drawing; }
+    @Override public void dispose() { }
+}
@@ -0,0 +1,59 @@
+package io.github.cristinarubylee.benchmarks;
+
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import io.github.cristinarubylee.util.ParallaxBackground;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of drawing the parallax background against a batch that records nothing.
+ * Run with the gc profiler to check that drawing does not allocate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParallaxBackgroundBenchmark {
+
+    /** Number of layers drawn per operation. */
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int count;
+
+    private ParallaxBackground background;
+    private NullBatch batch;
+    private Texture texture;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkSupport.init();
+        OrthographicCamera camera = new OrthographicCamera(16, 10);
+        camera.position.set(8, 5, 0);
+        camera.update();
+
+        Pixmap pixmap = new Pixmap(256, 256, Pixmap.Format.RGBA8888);
+        texture = new Texture(pixmap);
+        pixmap.dispose();
+
+        background = new ParallaxBackground(10, camera, 800, 500);
+        for (int i = 0; i < count; i++) {
+            background.addLayer(1f + i % 8, texture);
+        }
+        // Layers draw into a batch the caller has already begun
+        batch = new NullBatch();
+        batch.begin();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        texture.dispose();
+    }
+
+    @Benchmark
+    public int draw() {
+        background.translateX(1 / 60f);
+        background.draw(batch);
+        return batch.draws;
+    }
+}
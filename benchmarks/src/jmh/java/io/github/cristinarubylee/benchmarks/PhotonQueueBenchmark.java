@@ -0,0 +1,95 @@
+package io.github.cristinarubylee.benchmarks;
+
+import com.badlogic.gdx.backends.headless.mock.audio.MockSound;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import io.github.cristinarubylee.models.EntityStore;
+import io.github.cristinarubylee.models.GameObjectPool;
+import io.github.cristinarubylee.models.Photon;
+import io.github.cristinarubylee.models.PhotonQueue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the photon queue operations run every frame: moving, firing and removing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PhotonQueueBenchmark {
+    private static final float DELTA = 1 / 60f;
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int count;
+
+    private World world;
+    private World firingWorld;
+    private GameObjectPool<Photon> firingPool;
+    private PhotonQueue moving;
+    private PhotonQueue firing;
+    private final Array<Photon> retired = new Array<>();
+    private float direction = 1;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkSupport.init();
+        world = new World(new Vector2(), false);
+        EntityStore entities = new EntityStore();
+        GameObjectPool<Photon> pool = new GameObjectPool<>(world, (w, x, y) -> new Photon(entities, w, x, y));
+
+        // Photons that never expire, so update always does the full amount of work
+        moving = new PhotonQueue(pool, null, 5f, Float.NEGATIVE_INFINITY, Float.MAX_VALUE, new MockSound());
+        for (int i = 0; i < count; i++) {
+            moving.fire((i % 64) * 0.25f, (i / 64) * 0.25f);
+        }
+
+        // No spacing, so every fire() call spawns a photon. Kept in its own world so stepping it
+        // only simulates the photons fired by this benchmark.
+        firingWorld = new World(new Vector2(), false);
+        EntityStore firingEntities = new EntityStore();
+        firingPool = new GameObjectPool<>(firingWorld, (w, x, y) -> new Photon(firingEntities, w, x, y));
+        firingPool.fill(count);
+        firing = new PhotonQueue(firingPool, null, 5f, Float.NEGATIVE_INFINITY, Float.MAX_VALUE, new MockSound());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        world.dispose();
+        firingWorld.dispose();
+    }
+
+    @Benchmark
+    public void update() {
+        // Alternate direction so photons oscillate in place instead of leaving the screen
+        direction = -direction;
+        moving.update(direction * DELTA);
+    }
+
+    /**
+     * Fires {@code count} photons, steps the world once, then destroys and removes all of them and
+     * returns them to the pool. The step mirrors the game, where a photon never spawns and retires
+     * within the same step; without it Box2D's broadphase move buffer makes retiring quadratic.
+     */
+    @Benchmark
+    public void fireAndRemoveDestroyed() {
+        // Spread photons out so the broadphase does not report every pair as overlapping
+        for (int i = 0; i < count; i++) {
+            firing.fire((i % 64) * 0.25f, (i / 64) * 0.25f);
+        }
+        firingWorld.step(DELTA, 8, 3);
+
+        Array<Photon> photons = firing.getPhotons();
+        retired.clear();
+        retired.addAll(photons);
+        for (int i = 0; i < photons.size; i++) {
+            photons.get(i).setDestroyed(true);
+        }
+        firing.removeDestroyed();
+
+        for (int i = 0; i < retired.size; i++) {
+            firingPool.free(retired.get(i));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.cristinarubylee.benchmarks;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.World;
+import io.github.cristinarubylee.models.EntityStore;
+import io.github.cristinarubylee.models.GameObject;
+import io.github.cristinarubylee.models.MotionMode;
+import io.github.cristinarubylee.models.Nightmare;
+import io.github.cristinarubylee.models.Photon;
+import io.github.cristinarubylee.models.RenderSnapshot;
+import io.github.cristinarubylee.util.ProjectileVertices;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of packing photon quads for the projectile renderer from a render snapshot, as the
+ * game does, reported as vertices per millisecond by the {@code vertices} counter. Nightmares
+ * share the snapshot, so the fill also pays for skipping rows of other types, and
+ * {@link #fillCulled} also pays for testing every photon against a view that shows half of them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProjectileVerticesBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    public int count;
+
+    /**
+     * Vertices written, reported as a rate next to the fill rate.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long vertices;
+    }
+
+    private World world;
+    private Texture texture;
+    private TextureRegion region;
+    private RenderSnapshot snapshot;
+    private Rectangle view;
+    private ProjectileVertices vertices;
+    private float alpha;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkSupport.init();
+        world = new World(new Vector2(), false);
+        texture = new Texture(new Pixmap(64, 64, Pixmap.Format.RGBA8888));
+        region = new TextureRegion(texture, 8, 8, 32, 32);
+
+        // Bodies without fixtures, as with the spatial hash, and a nightmare for every ten photons
+        EntityStore entities = new EntityStore(count + count / 10);
+        for (int i = 0; i < count; i++) {
+            float x = (i % 256) * 0.05f;
+            float y = (i / 256) * 0.05f;
+            Photon photon = new Photon(entities, world, x, y, false);
+            photon.setVelocity(5, 0);
+            photon.setTexture(region);
+            if (i % 10 == 0) {
+                new Nightmare(entities, world, x, y, MotionMode.KINEMATIC, false).setTexture(region);
+            }
+        }
+        snapshot = new RenderSnapshot(count + count / 10);
+        snapshot.capture(entities, 0, 0, 0);
+        // Photons are laid out 256 to a row, so this covers the left half of every row
+        view = new Rectangle(0, 0, 128 * 0.05f, count / 256 * 0.05f + 1);
+        vertices = new ProjectileVertices(count);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        world.dispose();
+        texture.dispose();
+    }
+
+    @Benchmark
+    public int fill(Counters counters) {
+        return fill(counters, null);
+    }
+
+    @Benchmark
+    public int fillCulled(Counters counters) {
+        return fill(counters, view);
+    }
+
+    private int fill(Counters counters, Rectangle view) {
+        alpha = alpha > 0.9f ? 0 : alpha + 0.1f;
+        int quads = vertices.fill(snapshot, GameObject.ObjectType.PHOTON, region, alpha, view);
+        counters.vertices += quads * ProjectileVertices.VERTICES_PER_QUAD;
+        return quads;
+    }
+}
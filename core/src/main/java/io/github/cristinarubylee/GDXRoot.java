@@ -3,12 +3,18 @@ package io.github.cristinarubylee;
 import com.badlogic.gdx.Game;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.physics.box2d.Box2D;
 import com.badlogic.gdx.utils.viewport.FitViewport;
+import io.github.cristinarubylee.controllers.GameplayEvents;
+import io.github.cristinarubylee.controllers.SimulationThread;
 import io.github.cristinarubylee.screens.LoadingScreen;
 import io.github.cristinarubylee.screens.MainMenuScreen;
+import io.github.cristinarubylee.util.AssetStreamer;
+import io.github.cristinarubylee.util.ParallelRunner;
+import io.github.cristinarubylee.util.RegionRegistry;
 
 /** {@link com.badlogic.gdx.ApplicationListener} implementation shared by all platforms. */
 public class GDXRoot extends Game {
@@ -17,6 +23,27 @@ public class GDXRoot extends Game {
     public BitmapFont font;
     public FitViewport viewport;
     public AssetManager assetManager;
+    // Loads game assets by priority, a few milliseconds per frame
+    public AssetStreamer assets;
+    // Shared sprites, available once loading has finished
+    public RegionRegistry regions;
+    // Where simulation events are reported, for platforms that can record them
+    public final GameplayEvents events;
+    // Where to record the input of the game to, and a recording to play instead of live input; either may be null
+    public FileHandle recordFile;
+    public FileHandle replayFile;
+    // Starts the simulation on a thread of its own, for platforms that have threads; null ticks it in render
+    public SimulationThread.Factory simulationThread;
+    // Runs large formation updates, in parallel on platforms that have threads
+    public ParallelRunner parallel = ParallelRunner.SERIAL;
+
+    public GDXRoot() {
+        this(GameplayEvents.NONE);
+    }
+
+    public GDXRoot(GameplayEvents events) {
+        this.events = events;
+    }
 
     public void create() {
         Box2D.init();
@@ -25,6 +52,7 @@ public class GDXRoot extends Game {
         font = new BitmapFont();
         viewport = new FitViewport(16, 10);
         assetManager = new AssetManager();
+        assets = new AssetStreamer(assetManager);
 
         //font has 15pt, but we need to scale it to our viewport by ratio of viewport height to screen height
         font.setUseIntegerPositions(false);
@@ -38,6 +66,10 @@ public class GDXRoot extends Game {
     }
 
     public void dispose() {
+        // Game only hides the current screen on exit, so dispose it here to let it clean up
+        if (screen != null) {
+            screen.dispose();
+        }
         batch.dispose();
         font.dispose();
     }
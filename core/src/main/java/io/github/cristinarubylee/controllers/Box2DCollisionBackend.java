@@ -0,0 +1,57 @@
+package io.github.cristinarubylee.controllers;
+
+import com.badlogic.gdx.physics.box2d.*;
+import io.github.cristinarubylee.models.EntityStore;
+import io.github.cristinarubylee.models.GameObject;
+
+/**
+ * Lets Box2D find overlaps between fixtures, queueing them from its contact listener
+ * while the world is stepping.
+ */
+public class Box2DCollisionBackend implements CollisionBackend, ContactListener {
+
+    private final World world;
+    private CollisionController controller;
+
+    public Box2DCollisionBackend(World world) {
+        this.world = world;
+    }
+
+    @Override
+    public void attach(CollisionController controller) {
+        this.controller = controller;
+        world.setContactListener(this);
+    }
+
+    @Override
+    public boolean usesFixtures() {
+        return true;
+    }
+
+    @Override
+    public void detect(EntityStore entities) {
+        // Contacts were already reported during the step
+    }
+
+    @Override
+    public void beginContact(Contact contact) {
+        // Every body belongs to a game object, which sets itself as the user data
+        GameObject a = (GameObject) contact.getFixtureA().getBody().getUserData();
+        GameObject b = (GameObject) contact.getFixtureB().getBody().getUserData();
+        controller.queueContact(a.getId(), a.getCategoryBits(), b.getId(), b.getCategoryBits());
+    }
+
+    @Override
+    public void endContact(Contact contact) {
+    }
+
+    @Override
+    public void preSolve(Contact contact, Manifold manifold) {
+
+    }
+
+    @Override
+    public void postSolve(Contact contact, ContactImpulse contactImpulse) {
+
+    }
+}
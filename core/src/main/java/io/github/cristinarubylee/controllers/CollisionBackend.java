@@ -0,0 +1,25 @@
+package io.github.cristinarubylee.controllers;
+
+import io.github.cristinarubylee.models.EntityStore;
+
+/**
+ * Finds overlapping game objects and reports them to a {@link CollisionController}.
+ */
+public interface CollisionBackend {
+
+    /**
+     * Starts reporting overlaps to the given controller.
+     */
+    void attach(CollisionController controller);
+
+    /**
+     * Returns whether objects need their Box2D fixtures for this backend to see them.
+     */
+    boolean usesFixtures();
+
+    /**
+     * Reports overlaps among live objects. Called once per step, after the world has stepped
+     * and the store has been synced with it.
+     */
+    void detect(EntityStore entities);
+}
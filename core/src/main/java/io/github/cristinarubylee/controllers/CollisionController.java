@@ -1,89 +1,142 @@
 package io.github.cristinarubylee.controllers;
 
-import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.*;
-import com.badlogic.gdx.utils.*;
 import io.github.cristinarubylee.models.*;
 
-public class CollisionController implements ContactListener {
-
-    @Override
-    public void beginContact(Contact contact) {
-        Fixture fixtureA = contact.getFixtureA();
-        Fixture fixtureB = contact.getFixtureB();
-
-        Object userDataA = fixtureA.getBody().getUserData();
-        Object userDataB = fixtureB.getBody().getUserData();
-
-        // Check to see if the userData objects are instances of GameObject
-        if (userDataA instanceof GameObject && userDataB instanceof GameObject){
-            GameObject gameObjectA = (GameObject) userDataA;
-            GameObject gameObjectB = (GameObject) userDataB;
-
-            GameObject.ObjectType typeA = gameObjectA.getType();
-            GameObject.ObjectType typeB = gameObjectB.getType();
-
-//            System.out.println("Contact between fixtures: " + fixtureA + " and " + fixtureB);
-//            System.out.println("Fixture " + typeA + " at " + gameObjectA.getX() + ", " + gameObjectA.getY() );
-//            System.out.println("Fixture " + typeB + " at " + gameObjectB.getX() + ", " + gameObjectB.getY() );
-//            Vector2 point = contact.getWorldManifold().getPoints()[0];
-//            System.out.println("Contact point: " + point + "\n");
-
-            switch (typeA) {
-                case PLAYER:
-                    switch (typeB){
-                        case PLAYER:
-                        case PHOTON:
-                            break;
-                        case NIGHTMARE:
-                            int damage = ((Nightmare)gameObjectB).getDamage();
-                            gameObjectB.setDestroyed(true);
-                            ((Player)gameObjectA).changeHealth(-damage);
-                            break;
-                    }
-                    break;
-
-                case NIGHTMARE:
-                    switch (typeB){
-                        case PLAYER:
-                            int damage = ((Nightmare)gameObjectA).getDamage();
-                            gameObjectA.setDestroyed(true);
-                            ((Player)gameObjectB).changeHealth(-damage);
-                            break;
-                        case NIGHTMARE:
-                            break;
-                        case PHOTON:
-                            gameObjectB.setDestroyed(true);
-                            gameObjectA.setDestroyed(true);
-                            break;
-                    }
-                    break;
-
-                case PHOTON:
-                    switch (typeB) {
-                        case PLAYER:
-                        case PHOTON:
-                            break;
-                        case NIGHTMARE:
-                            gameObjectB.setDestroyed(true);
-                            gameObjectA.setDestroyed(true);
-                    }
-                    break;
+/**
+ * Resolves contacts between game objects, whichever {@link CollisionBackend} finds them.
+ *
+ * Backends only queue contacts, as entity ids and collision categories, while the world steps and
+ * while {@link #detect()} runs. {@link #resolve()} then applies them in the order they were found,
+ * looking up what each pair of categories does in a handler table, so supporting a new kind of
+ * object means registering its handlers with {@link #setHandler}. A contact is dropped when one of
+ * its objects was already destroyed by an earlier contact, so e.g. a nightmare that is touching
+ * the player twice only hurts them once.
+ */
+public class CollisionController {
+
+    /**
+     * What happens when two objects touch.
+     */
+    public interface ContactHandler {
+        /**
+         * @param a id of the object with the first category the handler was registered for
+         * @param b id of the object with the second category
+         */
+        void resolve(int a, int b);
+    }
+
+    // Contacts queued before a step finds more than this make the buffer grow
+    private static final int CONTACT_CAPACITY = 256;
+    // Collision categories are bits of a short
+    private static final int CATEGORIES = 16;
+    private static final GameObject.ObjectType[] TYPES = GameObject.ObjectType.values();
+
+    private final WorldCommandBuffer commands;
+    private final CollisionBackend backend;
+    private final EntityStore entities;
+    private final ContactBuffer contacts;
+    // Indexed by the bit numbers of two categories
+    private final ContactHandler[][] handlers;
+    private GameplayEvents events = GameplayEvents.NONE;
+
+    public CollisionController(WorldCommandBuffer commands, CollisionBackend backend, EntityStore entities) {
+        this.commands = commands;
+        this.backend = backend;
+        this.entities = entities;
+        contacts = new ContactBuffer(CONTACT_CAPACITY);
+        handlers = new ContactHandler[CATEGORIES][CATEGORIES];
+
+        setHandler(GameObject.CATEGORY_PLAYER, GameObject.CATEGORY_NIGHTMARE, this::hurtPlayer);
+        setHandler(GameObject.CATEGORY_PHOTON, GameObject.CATEGORY_NIGHTMARE, this::destroyBoth);
+        backend.attach(this);
+    }
+
+    public void setEvents(GameplayEvents events) {
+        this.events = events;
+    }
+
+    /**
+     * Sets what happens when an object of one category touches one of another; the order of the
+     * categories does not matter. Pairs without a handler are ignored.
+     *
+     * @param categoryA a single {@code CATEGORY_*} bit
+     * @param categoryB a single {@code CATEGORY_*} bit
+     */
+    public void setHandler(short categoryA, short categoryB, ContactHandler handler) {
+        handlers[bit(categoryA)][bit(categoryB)] = handler;
+    }
+
+    private static int bit(short category) {
+        return Integer.numberOfTrailingZeros(category & 0xFFFF);
+    }
+
+    /**
+     * Returns whether objects need their Box2D fixtures for the backend to see them.
+     */
+    public boolean usesFixtures() {
+        return backend.usesFixtures();
+    }
+
+    /**
+     * Queues a contact found by the backend, to be resolved by {@link #resolve()}.
+     */
+    public void queueContact(int idA, short categoryA, int idB, short categoryB) {
+        contacts.add(idA, categoryA, idB, categoryB);
+    }
+
+    /**
+     * Finds the overlaps among live objects that the backend did not already report during the step.
+     */
+    public void detect() {
+        backend.detect(entities);
+    }
+
+    /**
+     * Resolves every queued contact, oldest first. Call after {@link #detect()}.
+     */
+    public void resolve() {
+        while (contacts.poll()) {
+            int a = contacts.getIdA();
+            int b = contacts.getIdB();
+            if (!entities.isLive(a) || !entities.isLive(b)) {
+                continue;
+            }
+            int categoryA = bit(contacts.getCategoryA());
+            int categoryB = bit(contacts.getCategoryB());
+            events.contactResolved(TYPES[entities.type[a]], TYPES[entities.type[b]]);
+
+            ContactHandler handler = handlers[categoryA][categoryB];
+            if (handler != null) {
+                handler.resolve(a, b);
+            } else if ((handler = handlers[categoryB][categoryA]) != null) {
+                handler.resolve(b, a);
             }
         }
+        contacts.clearPairs();
     }
 
-    @Override
-    public void endContact(Contact contact) {
+    /** Returns the number of contacts dropped because their pair was already queued in the same step. */
+    public int getDuplicateContacts() {
+        return contacts.getDuplicates();
     }
 
-    @Override
-    public void preSolve(Contact contact, Manifold manifold) {
-
+    private void hurtPlayer(int player, int nightmare) {
+        int damage = ((Nightmare) entities.getObject(nightmare)).getDamage();
+        destroy(nightmare);
+        ((Player) entities.getObject(player)).changeHealth(-damage);
     }
 
-    @Override
-    public void postSolve(Contact contact, ContactImpulse contactImpulse) {
+    private void destroyBoth(int a, int b) {
+        destroy(b);
+        destroy(a);
+    }
 
+    /**
+     * Flags an object as destroyed and defers the removal of its body until after the step.
+     */
+    private void destroy(int id) {
+        GameObject gameObject = entities.getObject(id);
+        gameObject.setDestroyed(true);
+        commands.destroy(gameObject);
     }
 }
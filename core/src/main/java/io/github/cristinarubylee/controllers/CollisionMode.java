@@ -0,0 +1,14 @@
+package io.github.cristinarubylee.controllers;
+
+/**
+ * How overlaps between game objects are found.
+ */
+public enum CollisionMode {
+    /** Every body carries a sensor fixture and Box2D reports contacts during the step. */
+    BOX2D,
+    /**
+     * Bodies have no fixtures, so Box2D only integrates their motion, and overlaps are found
+     * after the step by a {@link SpatialHashCollisionBackend}.
+     */
+    SPATIAL_HASH
+}
@@ -0,0 +1,173 @@
+package io.github.cristinarubylee.controllers;
+
+/**
+ * Contacts found during a step, queued as entity ids and collision categories until they are
+ * resolved after it.
+ *
+ * A ring buffer over preallocated primitive arrays, so queueing a contact never allocates unless
+ * a step finds more contacts than ever before, in which case the buffer doubles. A pair that is
+ * already queued is not queued again until the buffer is drained.
+ */
+public class ContactBuffer {
+    private static final long EMPTY = 0;
+
+    // Ring of queued contacts; capacity is a power of two
+    private int[] idsA;
+    private int[] idsB;
+    private short[] categoriesA;
+    private short[] categoriesB;
+    private int head;
+    private int size;
+    // Slot of the contact last polled
+    private int current;
+
+    // Open-addressing set of the pairs queued since the last drain, twice the capacity of the ring
+    private long[] pairs;
+    // Slots of the set in use, so clearing it only touches those
+    private int[] usedSlots;
+    private int usedCount;
+
+    // Contacts not queued because their pair already was
+    private int duplicates;
+
+    /**
+     * @param capacity number of contacts to make room for, rounded up to a power of two
+     */
+    public ContactBuffer(int capacity) {
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        allocate(size);
+    }
+
+    private void allocate(int capacity) {
+        idsA = new int[capacity];
+        idsB = new int[capacity];
+        categoriesA = new short[capacity];
+        categoriesB = new short[capacity];
+        pairs = new long[capacity * 2];
+        usedSlots = new int[capacity];
+    }
+
+    /**
+     * Queues a contact between two objects, unless the same pair has been queued since the last drain.
+     *
+     * @return whether the contact was queued
+     */
+    public boolean add(int idA, short categoryA, int idB, short categoryB) {
+        if (size == idsA.length || usedCount == usedSlots.length) {
+            grow();
+        }
+        if (!markPair(idA, idB)) {
+            duplicates++;
+            return false;
+        }
+        int index = (head + size) & (idsA.length - 1);
+        idsA[index] = idA;
+        idsB[index] = idB;
+        categoriesA[index] = categoryA;
+        categoriesB[index] = categoryB;
+        size++;
+        return true;
+    }
+
+    /**
+     * Adds a pair to the set of queued pairs, in either order.
+     *
+     * @return false if it was already there
+     */
+    private boolean markPair(int idA, int idB) {
+        // Offset by one so no pair encodes to EMPTY
+        long key = ((long) Math.min(idA, idB) << 32 | Math.max(idA, idB)) + 1;
+        int mask = pairs.length - 1;
+        int slot = (int) (key ^ key >>> 29) * 0x9E3779B9 & mask;
+        while (pairs[slot] != EMPTY) {
+            if (pairs[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        pairs[slot] = key;
+        usedSlots[usedCount++] = slot;
+        return true;
+    }
+
+    /**
+     * Doubles the capacity, keeping the queued contacts and their pairs.
+     */
+    private void grow() {
+        int capacity = idsA.length;
+        int[] oldIdsA = idsA;
+        int[] oldIdsB = idsB;
+        short[] oldCategoriesA = categoriesA;
+        short[] oldCategoriesB = categoriesB;
+        allocate(capacity * 2);
+
+        for (int i = 0; i < size; i++) {
+            int index = (head + i) & (capacity - 1);
+            idsA[i] = oldIdsA[index];
+            idsB[i] = oldIdsB[index];
+            categoriesA[i] = oldCategoriesA[index];
+            categoriesB[i] = oldCategoriesB[index];
+        }
+        head = 0;
+
+        // Every queued contact has its own pair, so re-marking restores the set
+        usedCount = 0;
+        for (int i = 0; i < size; i++) {
+            markPair(idsA[i], idsB[i]);
+        }
+    }
+
+    /** Returns the number of queued contacts. */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes the oldest contact from the queue. Read it with the getters below before polling again.
+     *
+     * @return false if the queue is empty
+     */
+    public boolean poll() {
+        if (size == 0) {
+            return false;
+        }
+        current = head;
+        head = (head + 1) & (idsA.length - 1);
+        size--;
+        return true;
+    }
+
+    public int getIdA() {
+        return idsA[current];
+    }
+
+    public int getIdB() {
+        return idsB[current];
+    }
+
+    public short getCategoryA() {
+        return categoriesA[current];
+    }
+
+    public short getCategoryB() {
+        return categoriesB[current];
+    }
+
+    /**
+     * Forgets which pairs were queued, so they can be queued again. Call once the queue has been drained.
+     */
+    public void clearPairs() {
+        for (int i = 0; i < usedCount; i++) {
+            pairs[usedSlots[i]] = EMPTY;
+        }
+        usedCount = 0;
+    }
+
+    /** Returns how many contacts were dropped as duplicates since the buffer was created. */
+    public int getDuplicates() {
+        return duplicates;
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.cristinarubylee.controllers;
+
+import com.badlogic.gdx.utils.Array;
+import io.github.cristinarubylee.models.NightmareQueue;
+import io.github.cristinarubylee.util.ParallelRunner;
+
+/**
+ * Updates every formation once per step, spreading the work over a {@link ParallelRunner} when
+ * there are enough formations to gain from it.
+ *
+ * Formations do not depend on each other, so their targets are computed in parallel, each into
+ * its own block of one packed buffer. Box2D is not thread-safe, so the targets are then applied
+ * to the bodies in a single pass on the calling thread. Below {@link #PARALLEL_FORMATIONS}
+ * formations, handing out the work costs more than it saves, and formations update serially.
+ */
+public class FormationUpdater {
+    /** Fewest formations updated in parallel. */
+    public static final int PARALLEL_FORMATIONS = 64;
+    // Formations computed by one task
+    private static final int FORMATIONS_PER_TASK = 16;
+
+    private final ParallelRunner runner;
+    private final ParallelRunner.RangeTask computeTargets = this::computeTargets;
+
+    // Targets of every member, and where each formation's block starts
+    private float[] targets = new float[0];
+    private int[] offsets = new int[0];
+
+    // Arguments of the update in progress, read by the tasks
+    private Array<NightmareQueue> queues;
+    private float delta;
+
+    public FormationUpdater(ParallelRunner runner) {
+        this.runner = runner;
+    }
+
+    /**
+     * Updates every formation by one step.
+     */
+    public void update(Array<NightmareQueue> queues, float delta) {
+        int formations = queues.size;
+        if (formations < PARALLEL_FORMATIONS || runner == ParallelRunner.SERIAL) {
+            for (int i = 0; i < formations; i++) {
+                queues.get(i).update(delta);
+            }
+            return;
+        }
+
+        // Lay out one block per formation
+        if (offsets.length < formations) {
+            offsets = new int[formations * 2];
+        }
+        int floats = 0;
+        for (int i = 0; i < formations; i++) {
+            offsets[i] = floats;
+            floats += queues.get(i).getNightmares().size * NightmareQueue.FLOATS_PER_MEMBER;
+        }
+        if (targets.length < floats) {
+            targets = new float[floats * 2];
+        }
+
+        this.queues = queues;
+        this.delta = delta;
+        runner.run(formations, FORMATIONS_PER_TASK, computeTargets);
+        this.queues = null;
+
+        for (int i = 0; i < formations; i++) {
+            queues.get(i).applyTargets(targets, offsets[i]);
+        }
+    }
+
+    private void computeTargets(int from, int to) {
+        for (int i = from; i < to; i++) {
+            queues.get(i).computeTargets(delta, targets, offsets[i]);
+        }
+    }
+}
@@ -0,0 +1,548 @@
+package io.github.cristinarubylee.controllers;
+
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.Pool;
+import io.github.cristinarubylee.models.*;
+import io.github.cristinarubylee.util.FrameProfiler;
+import io.github.cristinarubylee.util.FrameProfiler.Phase;
+import io.github.cristinarubylee.util.ParallelRunner;
+import io.github.cristinarubylee.util.VoiceManager;
+
+/**
+ * Owns the simulation: the physics world and every game object in it.
+ *
+ * Nothing in here touches graphics or {@code Gdx.input}, so the same pipeline
+ * ({@link #input}, {@link #logic}, {@link #step}, {@link #cleanupBodies}) can be driven
+ * by {@link io.github.cristinarubylee.screens.GameScreen} or run headless.
+ * The simulation always advances in fixed steps of {@link #TIME_STEP}; see {@link #tick}.
+ * Textures and sounds are supplied by the caller and may be null when nothing is drawn.
+ * Its whole state can be saved between ticks and restored later with {@link #save} and
+ * {@link #restore}, which is how a run restarts without building a new world.
+ */
+public class GameplayController implements Disposable {
+    // Constants
+    public static final float TIME_STEP = 1/60f;
+    private static final int VELOCITY_ITERATIONS = 8;
+    private static final int POSITION_ITERATIONS = 3;
+    private static final float PLAYER_SPEED = 4f;
+    // Without a timeline, a circle is spawned at a random height this often
+    private static final float NIGHTMARE_SPAWN_INTERVAL = 2;
+    // Margin kept between formation centers and the top and bottom of the play area
+    private static final float SPAWN_MARGIN = 2;
+    // How far right of the play area nightmares stay dormant, out of Box2D, until they come close
+    private static final float ACTIVATION_MARGIN = 1;
+
+    // Bounds of the play area
+    private final float worldWidth;
+    private final float worldHeight;
+
+    // Physics
+    private final World world;
+    private final MotionMode motionMode;
+    private final WorldCommandBuffer commands;
+    private final CollisionController collisionController;
+
+    // Spawning
+    private final RandomXS128 random;
+    private WaveScheduler waves;
+    private int spawnMultiplier = 1;
+
+    // Game objects
+    private final EntityStore entities;
+    private final Player player;
+    private final PhotonQueue photons;
+    private final Array<NightmareQueue> nightmareQueues;
+    private final GameObjectPool<Photon> photonPool;
+    private final GameObjectPool<Nightmare> nightmarePool;
+    private final Pool<NightmareQueue> formationPool;
+    private FormationUpdater formationUpdater = new FormationUpdater(ParallelRunner.SERIAL);
+    // Ids of pooled objects, used while saving and restoring
+    private final IntArray poolIds = new IntArray();
+
+    // Profiling
+    private FrameProfiler profiler = FrameProfiler.DISABLED;
+    private GameplayEvents events = GameplayEvents.NONE;
+    // Voices the sounds play through, reported in snapshots, or null
+    private VoiceManager voices;
+
+    /**
+     * Creates a new simulation whose photons and nightmares are moved by the Box2D solver
+     * and collide on a spatial hash.
+     *
+     * @param seed seed for every random decision, so runs with the same seed and input are identical
+     */
+    public GameplayController(float worldWidth, float worldHeight, TextureRegion playerTexture,
+                              TextureRegion photonTexture, TextureRegion nightmareTexture,
+                              Sound photonSound, long seed) {
+        this(worldWidth, worldHeight, playerTexture, photonTexture, nightmareTexture, photonSound, seed,
+            MotionMode.KINEMATIC);
+    }
+
+    /**
+     * Creates a new simulation.
+     *
+     * @param seed       seed for every random decision, so runs with the same seed and input are identical
+     * @param motionMode how photons and nightmares are moved through Box2D
+     */
+    public GameplayController(float worldWidth, float worldHeight, TextureRegion playerTexture,
+                              TextureRegion photonTexture, TextureRegion nightmareTexture,
+                              Sound photonSound, long seed, MotionMode motionMode) {
+        this(worldWidth, worldHeight, playerTexture, photonTexture, nightmareTexture, photonSound, seed,
+            motionMode, CollisionMode.SPATIAL_HASH);
+    }
+
+    /**
+     * Creates a new simulation.
+     *
+     * @param seed          seed for every random decision, so runs with the same seed and input are identical
+     * @param motionMode    how photons and nightmares are moved through Box2D
+     * @param collisionMode how overlaps between objects are found
+     */
+    public GameplayController(float worldWidth, float worldHeight, TextureRegion playerTexture,
+                              TextureRegion photonTexture, TextureRegion nightmareTexture,
+                              Sound photonSound, long seed, MotionMode motionMode,
+                              CollisionMode collisionMode) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        random = new RandomXS128(seed);
+        waves = new WaveScheduler(1);
+        waves.add(0, NightmareQueue.NightmareType.CIRCLE, NightmareQueue.DEFAULT_COUNT, WaveScheduler.RANDOM_LANE,
+            NightmareQueue.DEFAULT_SPEED, NIGHTMARE_SPAWN_INTERVAL);
+
+        world = new World(new Vector2(0, 0), false);
+        this.motionMode = motionMode;
+        commands = new WorldCommandBuffer(this::release);
+        entities = new EntityStore();
+        collisionController = new CollisionController(commands, collisionMode == CollisionMode.BOX2D
+            ? new Box2DCollisionBackend(world)
+            : new SpatialHashCollisionBackend(), entities);
+        boolean fixtures = collisionController.usesFixtures();
+
+        // Initialize player
+        player = new Player(entities, world, 1, 5, fixtures);
+        player.setTexture(playerTexture);
+
+        // Initialize body pools, prewarmed so the first waves don't allocate
+        photonPool = new GameObjectPool<>(world, (w, x, y) -> new Photon(entities, w, x, y, fixtures));
+        photonPool.fill(32);
+        nightmarePool = new GameObjectPool<>(world, (w, x, y) -> new Nightmare(entities, w, x, y, motionMode, fixtures));
+        nightmarePool.fill(64);
+
+        // Initialize projectiles and enemies
+        photons = new PhotonQueue(photonPool, photonTexture, photonSound);
+        photons.setMotionMode(motionMode);
+        // Unordered, so retiring a formation is a constant-time swap-remove
+        nightmareQueues = new Array<>(false, 16);
+        formationPool = new Pool<NightmareQueue>() {
+            @Override
+            protected NightmareQueue newObject() {
+                NightmareQueue queue = new NightmareQueue(nightmarePool, nightmareTexture, motionMode);
+                queue.setActivationEdge(worldWidth + ACTIVATION_MARGIN);
+                return queue;
+            }
+        };
+    }
+
+    /**
+     * Advances the whole simulation by one fixed step of {@link #TIME_STEP}.
+     *
+     * @param movement vertical movement: -1 = down, 1 = up, 0 = still
+     * @param fire     whether the fire button is held
+     */
+    public void tick(float movement, boolean fire) {
+        // Keep the start of the step so rendering can interpolate towards the end of it
+        entities.savePositions();
+
+        input(movement, fire, TIME_STEP);
+        logic(TIME_STEP);
+        step();
+        cleanupBodies();
+    }
+
+    /**
+     * Applies one step of player input.
+     *
+     * @param movement vertical movement: -1 = down, 1 = up, 0 = still
+     * @param fire     whether the fire button is held
+     */
+    public void input(float movement, boolean fire, float delta) {
+        profiler.begin(Phase.INPUT);
+        // Player movement
+        if (movement > 0) {
+            player.translateY(PLAYER_SPEED * delta);
+        } else if (movement < 0) {
+            player.translateY(-PLAYER_SPEED * delta);
+        }
+
+        // Player firing
+        if (fire && photons.fire(player.getX() + player.getWidth(), player.getY() + player.getHeight() / 2)) {
+            events.photonFired(photons.getPhotons().size);
+        }
+        profiler.end(Phase.INPUT);
+    }
+
+    public void logic(float deltaTime) {
+        profiler.begin(Phase.LOGIC);
+        float playerHeight = player.getHeight();
+
+        // Clamp player position within the screen bounds
+        player.setPosition(MathUtils.clamp(player.getX(), playerHeight/2, worldWidth - playerHeight/2),
+            MathUtils.clamp(player.getY(), playerHeight/2, worldHeight - playerHeight/2));
+
+        // Update game objects
+        profiler.begin(Phase.UPDATE_NIGHTMARES);
+        updateNightmares(deltaTime);
+        profiler.end(Phase.UPDATE_NIGHTMARES);
+
+        profiler.begin(Phase.UPDATE_PHOTONS);
+        updatePhotons(deltaTime);
+        profiler.end(Phase.UPDATE_PHOTONS);
+
+        // Handle spawning new nightmares
+        profiler.begin(Phase.SPAWN_NIGHTMARES);
+        spawnNightmares(deltaTime);
+        profiler.end(Phase.SPAWN_NIGHTMARES);
+        profiler.end(Phase.LOGIC);
+    }
+
+    /**
+     * Advances the physics world by one fixed time step and resolves the contacts it produced.
+     */
+    public void step() {
+        profiler.begin(Phase.STEP);
+        events.stepStarted();
+        world.step(TIME_STEP, VELOCITY_ITERATIONS, POSITION_ITERATIONS);
+        events.stepFinished(getLiveBodyCount());
+        profiler.end(Phase.STEP);
+
+        profiler.begin(Phase.COLLISIONS);
+        entities.syncBodies();
+        collisionController.detect();
+        collisionController.resolve();
+        profiler.end(Phase.COLLISIONS);
+    }
+
+    private void spawnNightmares(float deltaTime) {
+        // Spawn every wave that has come due
+        waves.advance(deltaTime);
+        for (WaveScheduler.Wave wave = waves.poll(); wave != null; wave = waves.poll()) {
+            for (int i = 0; i < spawnMultiplier; i++) {
+                NightmareQueue nightmareQueue = formationPool.obtain();
+                nightmareQueue.spawn(worldWidth + 1, laneY(wave.lane), wave.formation, wave.count, wave.speed);
+                nightmareQueues.add(nightmareQueue);
+                events.formationSpawned(wave.formation, nightmareQueue.getNightmares().size, nightmareQueues.size);
+            }
+        }
+    }
+
+    /**
+     * Returns the height of the center of a lane, or a random height for {@link WaveScheduler#RANDOM_LANE}.
+     */
+    private float laneY(int lane) {
+        float usable = worldHeight - 2 * SPAWN_MARGIN;
+        if (lane == WaveScheduler.RANDOM_LANE) {
+            return SPAWN_MARGIN + random.nextFloat() * usable;
+        }
+        return SPAWN_MARGIN + (lane + 0.5f) / waves.getLanes() * usable;
+    }
+
+    private void updatePhotons(float deltaTime) {
+        photons.update(deltaTime);
+    }
+
+    private void updateNightmares(float deltaTime) {
+        formationUpdater.update(nightmareQueues, deltaTime);
+    }
+
+    /**
+     * Removes destroyed objects and applies deferred world changes. Call after {@link #step}.
+     */
+    public void cleanupBodies() {
+        profiler.begin(Phase.CLEANUP);
+        // Record destruction of everything flagged during logic or the step
+        int destroyedPhotons = 0;
+        int destroyedNightmares = 0;
+        for (Photon photon : photons.getPhotons()) {
+            if (photon.isDestroyed()) {
+                commands.destroy(photon);
+                destroyedPhotons++;
+            }
+        }
+        photons.removeDestroyed();
+
+        for (int i = nightmareQueues.size - 1; i >= 0; i--) {
+            NightmareQueue nightmareQueue = nightmareQueues.get(i);
+            for (Nightmare nightmare : nightmareQueue.getNightmares()) {
+                if (nightmare != null && nightmare.isDestroyed()) {
+                    commands.destroy(nightmare);
+                    destroyedNightmares++;
+                }
+            }
+            nightmareQueue.removeDestroyed();
+
+            // Retired formations are recycled rather than walked every frame
+            if (nightmareQueue.isRetired()) {
+                nightmareQueues.removeIndex(i);
+                formationPool.free(nightmareQueue);
+            }
+        }
+
+        // Queues no longer reference destroyed objects, so they can be parked safely
+        commands.execute();
+        if (destroyedPhotons + destroyedNightmares > 0) {
+            events.bodiesDestroyed(destroyedPhotons, destroyedNightmares);
+        }
+        profiler.end(Phase.CLEANUP);
+    }
+
+    /**
+     * Returns a destroyed object to the pool it was obtained from.
+     */
+    private void release(GameObject obj) {
+        switch (obj.getType()) {
+            case PHOTON:
+                photonPool.free((Photon) obj);
+                break;
+            case NIGHTMARE:
+                nightmarePool.free((Nightmare) obj);
+                break;
+            case PLAYER:
+                break;
+        }
+    }
+
+    /**
+     * Writes the whole simulation state into a snapshot, replacing its contents: the random
+     * generator, the wave timeline, the player, and every photon and formation. Call between ticks.
+     */
+    public void save(WorldSnapshot snapshot) {
+        snapshot.begin();
+        snapshot.writeByte(motionMode.ordinal());
+        snapshot.writeLong(random.getState(0));
+        snapshot.writeLong(random.getState(1));
+        waves.save(snapshot);
+
+        snapshot.writeFloat(player.getX());
+        snapshot.writeFloat(player.getY());
+        snapshot.writeInt(player.getCurrHealth());
+
+        // Every object and the order the pools hand them out in, so a restore keeps the same ids
+        snapshot.writeInt(entities.size());
+        for (int id = 0; id < entities.size(); id++) {
+            snapshot.writeByte(entities.type[id]);
+        }
+        photonPool.getParkedIds(poolIds);
+        for (int i = photons.getPhotons().size - 1; i >= 0; i--) {
+            poolIds.add(photons.getPhotons().get(i).getId());
+        }
+        writeIds(snapshot, poolIds);
+        nightmarePool.getParkedIds(poolIds);
+        for (int i = nightmareQueues.size - 1; i >= 0; i--) {
+            Array<Nightmare> members = nightmareQueues.get(i).getNightmares();
+            for (int j = members.size - 1; j >= 0; j--) {
+                if (members.get(j) != null) {
+                    poolIds.add(members.get(j).getId());
+                }
+            }
+        }
+        writeIds(snapshot, poolIds);
+
+        photons.save(snapshot);
+        snapshot.writeInt(nightmareQueues.size);
+        for (NightmareQueue nightmareQueue : nightmareQueues) {
+            nightmareQueue.save(snapshot);
+        }
+    }
+
+    /**
+     * Puts the simulation back in the state saved in a snapshot. Call between ticks.
+     *
+     * Everything in play is parked, and the saved objects are taken from the pools, so restoring
+     * reuses the bodies already in this world, creating only those the saved run had and this one
+     * lacks. Each object gets back the id it was saved with, and the pools hand out the same objects
+     * afterwards, so with {@link CollisionMode#SPATIAL_HASH spatial hash} collisions the run goes on
+     * exactly as the saved one did and the {@link #getStateHash() state hash} can be compared. The
+     * snapshot may come from another simulation with the same motion mode, as long as that one
+     * created no objects the saved run did not.
+     *
+     * With {@link CollisionMode#BOX2D Box2D} collisions, the contacts and broadphase of the world
+     * are not part of the snapshot. They are rebuilt by the next step, in an order of their own, so
+     * a restored run starts from the same scene but may resolve contacts in another order and drift
+     * from the saved one; its state hash is not comparable.
+     *
+     * @throws GdxRuntimeException if the snapshot was saved with another motion mode, has objects
+     *                             this simulation cannot give the same ids, or is truncated
+     */
+    public void restore(WorldSnapshot snapshot) {
+        snapshot.rewind();
+        MotionMode saved = MotionMode.values()[snapshot.readByte()];
+        if (saved != motionMode) {
+            throw new GdxRuntimeException("World snapshot was saved with " + saved + " motion, not " + motionMode);
+        }
+
+        // Park everything in play, last first, so the pools hand the same objects back in order
+        photons.clear();
+        for (int i = nightmareQueues.size - 1; i >= 0; i--) {
+            NightmareQueue nightmareQueue = nightmareQueues.get(i);
+            nightmareQueue.clear();
+            formationPool.free(nightmareQueue);
+        }
+        nightmareQueues.clear();
+
+        random.setState(snapshot.readLong(), snapshot.readLong());
+        waves = WaveScheduler.restore(snapshot);
+
+        player.setPosition(snapshot.readFloat(), snapshot.readFloat());
+        player.savePosition();
+        player.setCurrHealth(snapshot.readInt());
+
+        int rows = snapshot.readInt();
+        for (int id = 0; id < rows; id++) {
+            GameObject.ObjectType type = GameObject.ObjectType.values()[snapshot.readByte()];
+            if (id == entities.size()) {
+                GameObjectPool<?> pool = type == GameObject.ObjectType.PHOTON ? photonPool
+                    : type == GameObject.ObjectType.NIGHTMARE ? nightmarePool : null;
+                if (pool != null) {
+                    pool.fill(1);
+                }
+            }
+            if (id >= entities.size() || entities.type[id] != type.ordinal()) {
+                throw new GdxRuntimeException("World snapshot has a " + type + " with id " + id
+                    + ", which this simulation cannot restore");
+            }
+        }
+        photonPool.arrangeParked(readIds(snapshot));
+        nightmarePool.arrangeParked(readIds(snapshot));
+
+        photons.restore(snapshot);
+        int formations = snapshot.readInt();
+        for (int i = 0; i < formations; i++) {
+            NightmareQueue nightmareQueue = formationPool.obtain();
+            nightmareQueue.restore(snapshot);
+            nightmareQueues.add(nightmareQueue);
+        }
+    }
+
+    private static void writeIds(WorldSnapshot snapshot, IntArray ids) {
+        snapshot.writeInt(ids.size);
+        for (int i = 0; i < ids.size; i++) {
+            snapshot.writeInt(ids.get(i));
+        }
+    }
+
+    private IntArray readIds(WorldSnapshot snapshot) {
+        int count = snapshot.readInt();
+        poolIds.clear();
+        for (int i = 0; i < count; i++) {
+            poolIds.add(snapshot.readInt());
+        }
+        return poolIds;
+    }
+
+    /**
+     * Replaces the timeline of waves, which by default spawns a circle every
+     * {@value #NIGHTMARE_SPAWN_INTERVAL} seconds. Set it before the first tick.
+     */
+    public void setWaves(WaveScheduler waves) {
+        this.waves = waves;
+    }
+
+    /**
+     * Sets how many formations are spawned for each wave. Used to stress the simulation.
+     */
+    public void setSpawnMultiplier(int spawnMultiplier) {
+        this.spawnMultiplier = Math.max(1, spawnMultiplier);
+    }
+
+    /**
+     * Sets what formations are updated on once there are many of them. Serial by default.
+     */
+    public void setParallelRunner(ParallelRunner runner) {
+        formationUpdater = new FormationUpdater(runner);
+    }
+
+    /**
+     * Sets the voice manager the simulation's sounds play through, so snapshots report its usage.
+     */
+    public void setVoices(VoiceManager voices) {
+        this.voices = voices;
+    }
+
+    /**
+     * Sets the profiler that the simulation phases are timed into.
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Sets where notable simulation events are reported.
+     */
+    public void setEvents(GameplayEvents events) {
+        this.events = events;
+        collisionController.setEvents(events);
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    /** Returns the state of every object, in play or parked. */
+    public EntityStore getEntities() {
+        return entities;
+    }
+
+    public int getFormationCount() {
+        return nightmareQueues.size;
+    }
+
+    /**
+     * Copies what the next frame draws into a snapshot, so it can be drawn while the simulation moves on.
+     */
+    public void capture(RenderSnapshot snapshot) {
+        snapshot.capture(entities, player.getCurrHealth(), getLiveBodyCount(), nightmareQueues.size);
+        snapshot.getPhotonPool().set(photonPool);
+        snapshot.getNightmarePool().set(nightmarePool);
+        if (voices != null) {
+            snapshot.setVoices(voices.getVoices(), voices.getMaxVoices(), voices.getDropped());
+        }
+    }
+
+    /**
+     * Returns a hash of the simulation state, for checking that a replay matches its recording.
+     */
+    public int getStateHash() {
+        return 31 * entities.hash() + player.getCurrHealth();
+    }
+
+    /** Returns the number of bodies in play, not counting parked ones. */
+    public int getLiveBodyCount() {
+        return 1 + photonPool.getLive() + nightmarePool.getLive();
+    }
+
+    public GameObjectPool<Photon> getPhotonPool() {
+        return photonPool;
+    }
+
+    public GameObjectPool<Nightmare> getNightmarePool() {
+        return nightmarePool;
+    }
+
+    @Override
+    public void dispose() {
+        world.dispose();
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.cristinarubylee.controllers;
+
+import io.github.cristinarubylee.models.GameObject;
+import io.github.cristinarubylee.models.NightmareQueue;
+
+/**
+ * Receives notable simulation events, e.g. to record them for a profiler.
+ *
+ * Core only depends on this interface; platforms that can record events provide an implementation.
+ * Callers use {@link #NONE} by default, whose empty methods the JIT inlines away.
+ */
+public interface GameplayEvents {
+
+    /** Ignores every event. */
+    GameplayEvents NONE = new GameplayEvents() {
+        @Override
+        public void formationSpawned(NightmareQueue.NightmareType type, int members, int formations) {
+        }
+
+        @Override
+        public void photonFired(int photons) {
+        }
+
+        @Override
+        public void contactResolved(GameObject.ObjectType typeA, GameObject.ObjectType typeB) {
+        }
+
+        @Override
+        public void bodiesDestroyed(int photons, int nightmares) {
+        }
+
+        @Override
+        public void stepStarted() {
+        }
+
+        @Override
+        public void stepFinished(int bodies) {
+        }
+    };
+
+    /**
+     * A formation has been spawned.
+     *
+     * @param members    nightmares in the new formation
+     * @param formations formations in play, including the new one
+     */
+    void formationSpawned(NightmareQueue.NightmareType type, int members, int formations);
+
+    /**
+     * The player has fired a photon.
+     *
+     * @param photons photons in flight, including the new one
+     */
+    void photonFired(int photons);
+
+    /**
+     * A contact between two objects has been resolved.
+     */
+    void contactResolved(GameObject.ObjectType typeA, GameObject.ObjectType typeB);
+
+    /**
+     * Destroyed objects have been returned to their pools at the end of a step. Not reported when there are none.
+     */
+    void bodiesDestroyed(int photons, int nightmares);
+
+    /**
+     * The physics world is about to step.
+     */
+    void stepStarted();
+
+    /**
+     * The physics world has finished stepping.
+     *
+     * @param bodies bodies in play, not counting parked ones
+     */
+    void stepFinished(int bodies);
+}
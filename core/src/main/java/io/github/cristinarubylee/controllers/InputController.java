@@ -3,7 +3,10 @@ package io.github.cristinarubylee.controllers;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 
-public class InputController {
+/**
+ * Live input from the keyboard. The state read by {@link #readInput()} applies to every tick until the next read.
+ */
+public class InputController implements InputSource {
 
     private float movement;
     private boolean pressedFire;
@@ -28,6 +31,7 @@ public class InputController {
      *
      * @return amount of vertical movement.
      */
+    @Override
     public float getMovement() {
         return movement;
     }
@@ -37,11 +41,17 @@ public class InputController {
      *
      * @return whether the fire button was pressed.
      */
+    @Override
     public boolean didPressFire() {
         return pressedFire;
     }
 
 
+    @Override
+    public boolean nextTick() {
+        return true;
+    }
+
     /**
      * Reads the input and converts the result into game logic.
      */
@@ -0,0 +1,38 @@
+package io.github.cristinarubylee.controllers;
+
+/**
+ * Replays a recording tick by tick, then runs out.
+ */
+public class InputPlayback implements InputSource {
+    private final InputRecording recording;
+    // Tick being played, -1 before the first
+    private int tick = -1;
+
+    public InputPlayback(InputRecording recording) {
+        this.recording = recording;
+    }
+
+    @Override
+    public boolean nextTick() {
+        if (tick + 1 >= recording.size()) {
+            return false;
+        }
+        tick++;
+        return true;
+    }
+
+    @Override
+    public float getMovement() {
+        return recording.getMovement(tick);
+    }
+
+    @Override
+    public boolean didPressFire() {
+        return recording.didPressFire(tick);
+    }
+
+    /** Returns the number of ticks played so far. */
+    public int getTicksPlayed() {
+        return tick + 1;
+    }
+}
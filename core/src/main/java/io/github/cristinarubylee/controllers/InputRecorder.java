@@ -0,0 +1,40 @@
+package io.github.cristinarubylee.controllers;
+
+/**
+ * Passes on the input of another source while appending every tick of it to a recording.
+ */
+public class InputRecorder implements InputSource {
+    private final InputSource source;
+    private final InputRecording recording;
+
+    /**
+     * @param recording recording to append to, created with the seed of the simulation being played
+     */
+    public InputRecorder(InputSource source, InputRecording recording) {
+        this.source = source;
+        this.recording = recording;
+    }
+
+    @Override
+    public boolean nextTick() {
+        if (!source.nextTick()) {
+            return false;
+        }
+        recording.add(source.getMovement(), source.didPressFire());
+        return true;
+    }
+
+    @Override
+    public float getMovement() {
+        return source.getMovement();
+    }
+
+    @Override
+    public boolean didPressFire() {
+        return source.didPressFire();
+    }
+
+    public InputRecording getRecording() {
+        return recording;
+    }
+}
@@ -0,0 +1,173 @@
+package io.github.cristinarubylee.controllers;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.BooleanArray;
+import com.badlogic.gdx.utils.ByteArray;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * The input of a session, tick by tick, with the seed it was played with.
+ *
+ * Replaying the input into a simulation created with the same seed plays the same game bit for
+ * bit, so a recording of a real session is a repeatable load scenario.
+ *
+ * On disk, a recording is a header followed by one byte per tick: bit 0 is fire, and bits 1-2
+ * are the movement, 0 for still, 1 for up and 2 for down. Any other movement is stored as 3,
+ * followed by the four bytes of the float. Integers are big-endian.
+ */
+public class InputRecording {
+    // Header
+    private static final int MAGIC = 0x44535250; // "DSRP"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4;
+
+    // Tick encoding
+    private static final int FIRE = 1;
+    private static final int STILL = 0;
+    private static final int UP = 1 << 1;
+    private static final int DOWN = 2 << 1;
+    private static final int EXACT = 3 << 1;
+    private static final int MOVEMENT = 3 << 1;
+
+    private final long seed;
+    private final FloatArray movement;
+    private final BooleanArray fire;
+    // Hash of the simulation state after the last tick, 0 if unknown
+    private int stateHash;
+
+    public InputRecording(long seed) {
+        this.seed = seed;
+        movement = new FloatArray();
+        fire = new BooleanArray();
+    }
+
+    /**
+     * Appends the input of one tick.
+     */
+    public void add(float movement, boolean fire) {
+        this.movement.add(movement);
+        this.fire.add(fire);
+    }
+
+    /** Returns the seed the recorded simulation was created with. */
+    public long getSeed() {
+        return seed;
+    }
+
+    /** Returns the number of recorded ticks. */
+    public int size() {
+        return movement.size;
+    }
+
+    public float getMovement(int tick) {
+        return movement.get(tick);
+    }
+
+    public boolean didPressFire(int tick) {
+        return fire.get(tick);
+    }
+
+    /**
+     * Returns the {@link GameplayController#getStateHash() state hash} after the last tick, or 0 if it was not recorded.
+     */
+    public int getStateHash() {
+        return stateHash;
+    }
+
+    public void setStateHash(int stateHash) {
+        this.stateHash = stateHash;
+    }
+
+    /**
+     * Writes the recording to a file, replacing it.
+     */
+    public void write(FileHandle file) {
+        ByteArray bytes = new ByteArray(HEADER_BYTES + size());
+        writeInt(bytes, MAGIC);
+        writeInt(bytes, VERSION);
+        writeInt(bytes, (int) (seed >>> 32));
+        writeInt(bytes, (int) seed);
+        writeInt(bytes, size());
+        writeInt(bytes, stateHash);
+
+        for (int tick = 0; tick < size(); tick++) {
+            float value = movement.get(tick);
+            int state = fire.get(tick) ? FIRE : 0;
+            if (value == 0) {
+                state |= STILL;
+            } else if (value == 1) {
+                state |= UP;
+            } else if (value == -1) {
+                state |= DOWN;
+            } else {
+                state |= EXACT;
+            }
+            bytes.add((byte) state);
+            if ((state & MOVEMENT) == EXACT) {
+                writeInt(bytes, Float.floatToIntBits(value));
+            }
+        }
+        file.writeBytes(bytes.items, 0, bytes.size, false);
+    }
+
+    /**
+     * Reads a recording written by {@link #write}.
+     *
+     * @throws GdxRuntimeException if the file is not a recording or is truncated
+     */
+    public static InputRecording read(FileHandle file) {
+        byte[] bytes = file.readBytes();
+        if (bytes.length < HEADER_BYTES || readInt(bytes, 0) != MAGIC) {
+            throw new GdxRuntimeException("Not an input recording: " + file);
+        }
+        if (readInt(bytes, 4) != VERSION) {
+            throw new GdxRuntimeException("Unsupported input recording version " + readInt(bytes, 4) + ": " + file);
+        }
+        long seed = ((long) readInt(bytes, 8) << 32) | (readInt(bytes, 12) & 0xFFFFFFFFL);
+        int ticks = readInt(bytes, 16);
+
+        InputRecording recording = new InputRecording(seed);
+        recording.stateHash = readInt(bytes, 20);
+        recording.movement.ensureCapacity(ticks);
+        recording.fire.ensureCapacity(ticks);
+
+        int offset = HEADER_BYTES;
+        for (int tick = 0; tick < ticks; tick++) {
+            if (offset >= bytes.length) {
+                throw new GdxRuntimeException("Input recording ends after " + tick + " of " + ticks + " ticks: " + file);
+            }
+            int state = bytes[offset++];
+            float value;
+            switch (state & MOVEMENT) {
+                case UP:
+                    value = 1;
+                    break;
+                case DOWN:
+                    value = -1;
+                    break;
+                case EXACT:
+                    if (offset + 4 > bytes.length) {
+                        throw new GdxRuntimeException("Input recording ends in tick " + tick + ": " + file);
+                    }
+                    value = Float.intBitsToFloat(readInt(bytes, offset));
+                    offset += 4;
+                    break;
+                default:
+                    value = 0;
+                    break;
+            }
+            recording.add(value, (state & FIRE) != 0);
+        }
+        return recording;
+    }
+
+    private static void writeInt(ByteArray bytes, int value) {
+        bytes.add((byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value);
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) << 24 | (bytes[offset + 1] & 0xFF) << 16
+            | (bytes[offset + 2] & 0xFF) << 8 | (bytes[offset + 3] & 0xFF);
+    }
+}
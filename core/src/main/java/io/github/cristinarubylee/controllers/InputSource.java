@@ -0,0 +1,28 @@
+package io.github.cristinarubylee.controllers;
+
+/**
+ * Supplies the player input for each simulation tick.
+ *
+ * The simulation only ever sees input through a source, one tick at a time, so live input,
+ * a recording of it and a replay are interchangeable.
+ */
+public interface InputSource {
+
+    /**
+     * Advances to the input of the next tick.
+     *
+     * @return false if the source has no more input, e.g. at the end of a replay
+     */
+    boolean nextTick();
+
+    /**
+     * Returns the amount of vertical movement for the current tick.
+     * -1 = down, 1 = up, 0 = still
+     */
+    float getMovement();
+
+    /**
+     * Returns whether the fire button is held in the current tick.
+     */
+    boolean didPressFire();
+}
@@ -0,0 +1,69 @@
+package io.github.cristinarubylee.controllers;
+
+import com.badlogic.gdx.utils.Disposable;
+import io.github.cristinarubylee.models.RenderSnapshot;
+import io.github.cristinarubylee.models.WorldSnapshot;
+
+/**
+ * Ticks a simulation on a thread of its own, so physics does not take time from the frame.
+ *
+ * The render thread hands over the input it reads each frame with {@link #submit} and draws the
+ * latest snapshot the simulation has published. Neither side waits for the other. Threads are not
+ * available on every platform, so the implementation is supplied by the launcher, and the game
+ * ticks on the render thread when there is none.
+ */
+public interface SimulationThread extends Disposable {
+
+    /**
+     * Starts simulation threads.
+     */
+    interface Factory {
+        /**
+         * Starts ticking a simulation that nothing else touches until the thread is disposed.
+         *
+         * @param replay    recording to play instead of the submitted input, or null
+         * @param recording recording the submitted input is appended to, or null
+         * @param afterTick run on the simulation thread after every tick
+         */
+        SimulationThread start(GameplayController gameplay, InputRecording replay, InputRecording recording,
+                               Runnable afterTick);
+    }
+
+    /**
+     * Queues the input read this frame for the next tick. Call from the render thread.
+     *
+     * @param movement vertical movement: -1 = down, 1 = up, 0 = still
+     * @param fire     whether the fire button is held
+     */
+    void submit(float movement, boolean fire);
+
+    /**
+     * Returns the latest snapshot the simulation has published. It stays unchanged until the next call.
+     */
+    RenderSnapshot getSnapshot();
+
+    /**
+     * Returns how far the render time is past the snapshot last returned, in steps, from 0 to 1.
+     */
+    float getAlpha();
+
+    void setPaused(boolean paused);
+
+    /**
+     * Puts the simulation back in the state of a snapshot before its next tick. Call from the
+     * render thread, and leave the snapshot unchanged from then on.
+     */
+    void restore(WorldSnapshot snapshot);
+
+    /**
+     * Returns whether the simulation stopped because a replay ran out. Once it has, the
+     * simulation may be read from the render thread.
+     */
+    boolean isFinished();
+
+    /**
+     * Stops the thread and waits for it, after which the simulation may be read from the render thread.
+     */
+    @Override
+    void dispose();
+}
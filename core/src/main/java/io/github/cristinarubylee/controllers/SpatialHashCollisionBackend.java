@@ -0,0 +1,156 @@
+package io.github.cristinarubylee.controllers;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.IntIntMap;
+import io.github.cristinarubylee.models.EntityStore;
+import io.github.cristinarubylee.models.GameObject;
+
+/**
+ * Finds overlaps on a uniform grid instead of in Box2D.
+ *
+ * Each step, live objects inside the activation zone are bucketed in entity id order by the cell holding their center and
+ * tested against the objects already bucketed in the surrounding 3x3 cells, so every pair is
+ * tested at most once. Positions and shapes are read straight from the {@link EntityStore}.
+ * This only finds every overlap if no object is wider than a cell. Shapes are circles of
+ * {@link GameObject#getRadius()}, or boxes of the object's size, and pairs are filtered by
+ * category, mask and group exactly as Box2D filters fixtures.
+ *
+ * Unlike Box2D, an overlap is reported on every step it lasts rather than only when it begins.
+ * Every contact the game resolves destroys one of the two objects, and destroyed objects are
+ * skipped, so in practice each pair is still reported once.
+ */
+public class SpatialHashCollisionBackend implements CollisionBackend {
+    /** Cell size fitting the largest game object. */
+    public static final float DEFAULT_CELL_SIZE = 1f;
+
+    private static final int NONE = -1;
+
+    private final float cellSize;
+    private CollisionController controller;
+
+    // Id of the last object bucketed in each cell, keyed by packed cell coordinates
+    private final IntIntMap cells;
+
+    // Per entity id: filter bits of the objects bucketed this step, and the id of the
+    // previous object bucketed in the same cell, or NONE
+    private short[] categories;
+    private short[] masks;
+    private short[] groups;
+    private int[] next;
+
+    public SpatialHashCollisionBackend() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    public SpatialHashCollisionBackend(float cellSize) {
+        this.cellSize = cellSize;
+        cells = new IntIntMap(256);
+        allocate(256);
+    }
+
+    @Override
+    public void attach(CollisionController controller) {
+        this.controller = controller;
+    }
+
+    @Override
+    public boolean usesFixtures() {
+        return false;
+    }
+
+    @Override
+    public void detect(EntityStore entities) {
+        int size = entities.size();
+        if (size > next.length) {
+            allocate(MathUtils.nextPowerOfTwo(size));
+        }
+        cells.clear();
+
+        float[] xs = entities.x;
+        float[] ys = entities.y;
+        for (int id = 0; id < size; id++) {
+            if (!entities.isAwake(id)) {
+                continue;
+            }
+
+            GameObject object = entities.getObject(id);
+            categories[id] = object.getCategoryBits();
+            masks[id] = object.getMaskBits();
+            groups[id] = object.getGroupIndex();
+
+            int cellX = MathUtils.floor(xs[id] / cellSize);
+            int cellY = MathUtils.floor(ys[id] / cellSize);
+            query(entities, id, cellX, cellY);
+
+            int key = key(cellX, cellY);
+            next[id] = cells.get(key, NONE);
+            cells.put(key, id);
+        }
+    }
+
+    /**
+     * Queues every overlap between an object and those already bucketed around its cell.
+     */
+    private void query(EntityStore entities, int id, int cellX, int cellY) {
+        for (int y = cellY - 1; y <= cellY + 1; y++) {
+            for (int x = cellX - 1; x <= cellX + 1; x++) {
+                for (int other = cells.get(key(x, y), NONE); other != NONE; other = next[other]) {
+                    if (!entities.isAwake(other) || !shouldCollide(id, other) || !overlaps(entities, id, other)) {
+                        continue;
+                    }
+
+                    controller.queueContact(id, categories[id], other, categories[other]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies Box2D's default contact filter.
+     */
+    private boolean shouldCollide(int a, int b) {
+        if (groups[a] == groups[b] && groups[a] != 0) {
+            return groups[a] > 0;
+        }
+        return (masks[a] & categories[b]) != 0 && (categories[a] & masks[b]) != 0;
+    }
+
+    private static boolean overlaps(EntityStore entities, int a, int b) {
+        float[] xs = entities.x;
+        float[] ys = entities.y;
+        float[] radii = entities.radius;
+        float dx = xs[b] - xs[a];
+        float dy = ys[b] - ys[a];
+
+        if (radii[a] > 0 && radii[b] > 0) {
+            float radius = radii[a] + radii[b];
+            return dx * dx + dy * dy < radius * radius;
+        }
+        if (radii[a] == 0 && radii[b] == 0) {
+            return Math.abs(dx) * 2 < entities.width[a] + entities.width[b]
+                && Math.abs(dy) * 2 < entities.height[a] + entities.height[b];
+        }
+
+        // Circle against box: distance from the circle to the closest point of the box
+        int circle = radii[a] > 0 ? a : b;
+        int box = circle == a ? b : a;
+        float halfWidth = entities.width[box] / 2;
+        float halfHeight = entities.height[box] / 2;
+        float closestX = MathUtils.clamp(xs[circle], xs[box] - halfWidth, xs[box] + halfWidth);
+        float closestY = MathUtils.clamp(ys[circle], ys[box] - halfHeight, ys[box] + halfHeight);
+        float distanceX = xs[circle] - closestX;
+        float distanceY = ys[circle] - closestY;
+        return distanceX * distanceX + distanceY * distanceY < radii[circle] * radii[circle];
+    }
+
+    private static int key(int cellX, int cellY) {
+        return (cellX << 16) | (cellY & 0xFFFF);
+    }
+
+    private void allocate(int capacity) {
+        categories = new short[capacity];
+        masks = new short[capacity];
+        groups = new short[capacity];
+        next = new int[capacity];
+    }
+}
@@ -0,0 +1,234 @@
+package io.github.cristinarubylee.controllers;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.BinaryHeap;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import io.github.cristinarubylee.models.NightmareQueue;
+import io.github.cristinarubylee.models.WorldSnapshot;
+
+/**
+ * Decides when which formations of nightmares enter the game, from a timeline of waves.
+ *
+ * Waves wait in a priority queue ordered by spawn time, so each tick only looks at the head.
+ * Waves due at the same time spawn in the order they were added. A wave with a repeat interval
+ * goes back into the queue when it spawns, which is how a short timeline keeps the game going.
+ *
+ * Timelines are JSON files like this one; only {@code time} and {@code formation} are required:
+ * <pre>
+ * {
+ *   "lanes": 5,
+ *   "waves": [
+ *     { "time": 0, "formation": "CIRCLE", "count": 8, "lane": -1, "speed": 5, "repeat": 2 },
+ *     { "time": 10, "formation": "WALL", "count": 5, "lane": 2, "speed": 3 }
+ *   ]
+ * }
+ * </pre>
+ * Times are in seconds since the start of the game. Lanes divide the height the formations can
+ * use into equal rows, numbered from the bottom; lane -1 picks a random height.
+ */
+public class WaveScheduler {
+    public static final int RANDOM_LANE = -1;
+
+    /**
+     * One formation to spawn. Its value in the queue is its spawn time.
+     */
+    public static class Wave extends BinaryHeap.Node {
+        public final NightmareQueue.NightmareType formation;
+        public final int count;
+        public final int lane;
+        public final float speed;
+        // Seconds until the wave spawns again, or 0 to spawn it once
+        public final float repeat;
+        // Position in the timeline, which breaks ties between waves due at the same time
+        private int order;
+
+        public Wave(float time, NightmareQueue.NightmareType formation, int count, int lane, float speed,
+                    float repeat) {
+            super(time);
+            this.formation = formation;
+            this.count = count;
+            this.lane = lane;
+            this.speed = speed;
+            this.repeat = repeat;
+        }
+    }
+
+    private final BinaryHeap<Wave> waves;
+    // Every wave ever added, in order, since the heap cannot be walked for saving
+    private final Array<Wave> scheduled;
+    // Waves popped while looking for the first of several due at the same time
+    private final Array<Wave> ties;
+    private final int lanes;
+    // Seconds since the start of the game
+    private float time;
+
+    /**
+     * Creates an empty timeline.
+     *
+     * @param lanes number of lanes waves can be placed in
+     */
+    public WaveScheduler(int lanes) {
+        if (lanes < 1) {
+            throw new GdxRuntimeException("A timeline needs at least one lane, not " + lanes);
+        }
+        this.lanes = lanes;
+        waves = new BinaryHeap<>();
+        scheduled = new Array<>();
+        ties = new Array<>();
+    }
+
+    /**
+     * Reads a timeline in the format described above.
+     *
+     * @throws GdxRuntimeException if the file is not a valid timeline
+     */
+    public static WaveScheduler load(FileHandle file) {
+        JsonValue root = new JsonReader().parse(file);
+        WaveScheduler scheduler = new WaveScheduler(root.getInt("lanes", 1));
+        JsonValue waves = root.get("waves");
+        if (waves == null) {
+            throw new GdxRuntimeException("Timeline has no waves: " + file);
+        }
+
+        for (JsonValue wave = waves.child; wave != null; wave = wave.next) {
+            NightmareQueue.NightmareType formation;
+            try {
+                formation = NightmareQueue.NightmareType.valueOf(wave.getString("formation").toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new GdxRuntimeException("Unknown formation in " + file + ": " + wave.getString("formation"));
+            }
+            scheduler.add(wave.getFloat("time"), formation,
+                wave.getInt("count", NightmareQueue.DEFAULT_COUNT),
+                wave.getInt("lane", RANDOM_LANE),
+                wave.getFloat("speed", NightmareQueue.DEFAULT_SPEED),
+                wave.getFloat("repeat", 0));
+        }
+        return scheduler;
+    }
+
+    /**
+     * Schedules a wave.
+     *
+     * @param time   seconds since the start of the game
+     * @param count  number of members
+     * @param lane   lane to spawn in, or {@link #RANDOM_LANE}
+     * @param speed  how fast the formation moves left, in world units per second
+     * @param repeat seconds until the wave spawns again, or 0 to spawn it once
+     */
+    public void add(float time, NightmareQueue.NightmareType formation, int count, int lane, float speed,
+                    float repeat) {
+        if (count < 1) {
+            throw new GdxRuntimeException("A wave needs at least one member, not " + count);
+        }
+        if (lane < RANDOM_LANE || lane >= lanes) {
+            throw new GdxRuntimeException("Lane " + lane + " is outside the " + lanes + " lanes of the timeline");
+        }
+        if (repeat < 0) {
+            throw new GdxRuntimeException("Waves cannot repeat every " + repeat + " seconds");
+        }
+        Wave wave = new Wave(time, formation, count, lane, speed, repeat);
+        wave.order = scheduled.size;
+        waves.add(wave);
+        scheduled.add(wave);
+    }
+
+    /**
+     * Moves the clock forward. Call once per tick, then take the waves that became due with {@link #poll}.
+     */
+    public void advance(float delta) {
+        time += delta;
+    }
+
+    /**
+     * Returns the next wave that is due and removes it from the queue, or reschedules it if it repeats.
+     *
+     * @return the wave, or null if none is due
+     */
+    public Wave poll() {
+        if (waves.size == 0 || waves.peek().getValue() > time) {
+            return null;
+        }
+        Wave wave = waves.pop();
+        // The heap does not keep equal values in any given order, so pick the earliest added
+        float due = wave.getValue();
+        while (waves.size > 0 && waves.peek().getValue() == due) {
+            Wave tie = waves.pop();
+            if (tie.order < wave.order) {
+                ties.add(wave);
+                wave = tie;
+            } else {
+                ties.add(tie);
+            }
+        }
+        for (int i = 0; i < ties.size; i++) {
+            waves.add(ties.get(i), due);
+        }
+        ties.clear();
+
+        if (wave.repeat > 0) {
+            waves.add(wave, wave.getValue() + wave.repeat);
+        }
+        return wave;
+    }
+
+    /**
+     * Writes the clock and the waves still to spawn, each with the time it spawns next.
+     * Call between ticks, when every wave that was due has been polled.
+     */
+    public void save(WorldSnapshot snapshot) {
+        // Waves that are due have been polled, and only repeating ones went back into the queue
+        int pending = 0;
+        for (Wave wave : scheduled) {
+            if (wave.getValue() > time) {
+                pending++;
+            }
+        }
+        snapshot.writeInt(lanes);
+        snapshot.writeFloat(time);
+        snapshot.writeInt(pending);
+        for (Wave wave : scheduled) {
+            if (wave.getValue() > time) {
+                snapshot.writeFloat(wave.getValue());
+                snapshot.writeByte(wave.formation.ordinal());
+                snapshot.writeInt(wave.count);
+                snapshot.writeInt(wave.lane);
+                snapshot.writeFloat(wave.speed);
+                snapshot.writeFloat(wave.repeat);
+            }
+        }
+    }
+
+    /**
+     * Reads a timeline saved by {@link #save}, with its clock where it was.
+     */
+    public static WaveScheduler restore(WorldSnapshot snapshot) {
+        WaveScheduler scheduler = new WaveScheduler(snapshot.readInt());
+        scheduler.time = snapshot.readFloat();
+        int pending = snapshot.readInt();
+        for (int i = 0; i < pending; i++) {
+            float time = snapshot.readFloat();
+            NightmareQueue.NightmareType formation = NightmareQueue.NightmareType.values()[snapshot.readByte()];
+            scheduler.add(time, formation, snapshot.readInt(), snapshot.readInt(), snapshot.readFloat(),
+                snapshot.readFloat());
+        }
+        return scheduler;
+    }
+
+    /** Returns the number of lanes waves can be placed in. */
+    public int getLanes() {
+        return lanes;
+    }
+
+    /** Returns the number of waves still to spawn, counting each repeating wave once. */
+    public int getPending() {
+        return waves.size;
+    }
+
+    /** Returns the seconds since the start of the game. */
+    public float getTime() {
+        return time;
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.cristinarubylee.controllers;
+
+import com.badlogic.gdx.utils.Array;
+import io.github.cristinarubylee.models.GameObject;
+
+/**
+ * Records the destruction of game objects and applies it in one pass after the step.
+ *
+ * Objects are flagged for removal during logic, when a formation or photon runs its course, and
+ * by {@link CollisionController#resolve()}, when a contact destroys them. The owners of those
+ * objects still hold them until {@link GameplayController#cleanupBodies()} removes them, so
+ * retiring an object is deferred here until nothing references it, and {@link #execute()} hands
+ * each one to the {@link Retirer} exactly once. Spawns, activation and moves happen during logic,
+ * before the step, and are applied directly.
+ */
+public class WorldCommandBuffer {
+
+    /** Handles objects whose destruction has been applied, e.g. by returning them to a pool. */
+    public interface Retirer {
+        void retire(GameObject object);
+    }
+
+    private final Retirer retirer;
+    private final Array<GameObject> destroyed;
+
+    public WorldCommandBuffer(Retirer retirer) {
+        this.retirer = retirer;
+        destroyed = new Array<>(64);
+    }
+
+    /**
+     * Destroys an object. Recording the same object more than once has no effect.
+     */
+    public void destroy(GameObject object) {
+        if (object.isPendingDestroy()) {
+            return;
+        }
+        object.setPendingDestroy(true);
+        destroyed.add(object);
+    }
+
+    /**
+     * Returns the number of destructions waiting to be applied.
+     */
+    public int size() {
+        return destroyed.size;
+    }
+
+    /**
+     * Retires every recorded object and clears the buffer.
+     * Must not be called while the world is stepping.
+     */
+    public void execute() {
+        for (int i = 0; i < destroyed.size; i++) {
+            GameObject object = destroyed.get(i);
+            object.setPendingDestroy(false);
+            retirer.retire(object);
+        }
+        destroyed.clear();
+    }
+}
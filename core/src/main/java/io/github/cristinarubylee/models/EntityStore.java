@@ -0,0 +1,349 @@
+package io.github.cristinarubylee.models;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+import java.util.Arrays;
+
+/**
+ * Packed state of every game object, stored as parallel primitive arrays indexed by entity id.
+ *
+ * A {@link GameObject} is only a view onto its row here and onto its Box2D body. Positions and
+ * velocities are mirrored in the arrays so the simulation and rendering read them with plain
+ * array loads instead of calls into Box2D; {@link #syncBodies()} pulls in what the solver moved.
+ *
+ * The ids of the objects in play are also kept in one packed list per type, updated as objects
+ * are activated and parked, so systems that only care about objects in play walk those lists
+ * instead of every row. Listing and unlisting are constant time; unlisting moves the last id of
+ * the list into the gap.
+ *
+ * Ids of discarded objects are reused, and the arrays are replaced when they grow,
+ * so read the array fields again after creating objects rather than caching them.
+ */
+public class EntityStore {
+    // Flags
+    /** The object is in play, as opposed to parked in its pool. */
+    public static final byte ACTIVE = 1;
+    /** The object has been flagged for removal. */
+    public static final byte DESTROYED = 2;
+    /** A destroy command for the object is waiting to be applied. */
+    public static final byte PENDING_DESTROY = 4;
+    /** The object is outside the activation zone: its body is inactive and only its row moves. */
+    public static final byte DORMANT = 8;
+
+    private static final short NO_TEXTURE = -1;
+    private static final GameObject.ObjectType[] TYPES = GameObject.ObjectType.values();
+
+    /** Types in the order they are drawn, lowest layer first. */
+    public static final GameObject.ObjectType[] DRAW_ORDER = byLayer();
+
+    // Rows, indexed by entity id
+    public float[] x;
+    public float[] y;
+    public float[] prevX;
+    public float[] prevY;
+    public float[] vx;
+    public float[] vy;
+    public float[] width;
+    public float[] height;
+    public float[] radius;
+    public byte[] type;
+    public byte[] flags;
+    public short[] textureId;
+    private GameObject[] objects;
+    private Body[] bodies;
+
+    // One past the highest id handed out, and ids free for reuse
+    private int size;
+    private int count;
+    private final IntArray freeIds;
+
+    // Ids in play per type, packed at the front, and the position of each id in its list or -1
+    private final int[][] liveIds;
+    private final int[] liveCounts;
+    private int[] liveSlot;
+
+    // Textures referenced by textureId
+    private final Array<TextureRegion> textures;
+
+    public EntityStore() {
+        this(128);
+    }
+
+    public EntityStore(int initialCapacity) {
+        freeIds = new IntArray();
+        textures = new Array<>();
+        liveIds = new int[TYPES.length][16];
+        liveCounts = new int[TYPES.length];
+        allocate(Math.max(1, initialCapacity));
+    }
+
+    private static GameObject.ObjectType[] byLayer() {
+        GameObject.ObjectType[] types = GameObject.ObjectType.values();
+        // Insertion sort, stable so types sharing a layer keep their declared order
+        for (int i = 1; i < types.length; i++) {
+            GameObject.ObjectType type = types[i];
+            int j = i - 1;
+            for (; j >= 0 && types[j].getLayer() > type.getLayer(); j--) {
+                types[j + 1] = types[j];
+            }
+            types[j + 1] = type;
+        }
+        return types;
+    }
+
+    /**
+     * Adds a row for a new object and returns its id. The object starts active, at rest and without a texture.
+     */
+    public int create(GameObject object, Body body, float x, float y, float width, float height, float radius) {
+        int id;
+        if (freeIds.size > 0) {
+            id = freeIds.pop();
+        } else {
+            if (size == this.x.length) {
+                allocate(size * 2);
+            }
+            id = size++;
+        }
+        count++;
+
+        objects[id] = object;
+        bodies[id] = body;
+        this.x[id] = x;
+        this.y[id] = y;
+        prevX[id] = x;
+        prevY[id] = y;
+        vx[id] = 0;
+        vy[id] = 0;
+        this.width[id] = width;
+        this.height[id] = height;
+        this.radius[id] = radius;
+        type[id] = (byte) object.getType().ordinal();
+        textureId[id] = NO_TEXTURE;
+        activate(id);
+        return id;
+    }
+
+    /**
+     * Frees the row of a discarded object so its id can be reused.
+     */
+    public void release(int id) {
+        deactivate(id);
+        objects[id] = null;
+        bodies[id] = null;
+        freeIds.add(id);
+        count--;
+    }
+
+    /**
+     * Puts an object in play with no other flags, and lists it with the others of its type.
+     * Always change {@link #ACTIVE} through this and {@link #deactivate}.
+     */
+    public void activate(int id) {
+        flags[id] = ACTIVE;
+        if (liveSlot[id] >= 0) {
+            return;
+        }
+        int listed = type[id];
+        int[] ids = liveIds[listed];
+        int slot = liveCounts[listed]++;
+        if (slot == ids.length) {
+            int[] grown = new int[ids.length * 2];
+            System.arraycopy(ids, 0, grown, 0, slot);
+            liveIds[listed] = ids = grown;
+        }
+        ids[slot] = id;
+        liveSlot[id] = slot;
+    }
+
+    /**
+     * Takes an object out of play, clearing all its flags, and unlists it.
+     */
+    public void deactivate(int id) {
+        flags[id] = 0;
+        int slot = liveSlot[id];
+        if (slot < 0) {
+            return;
+        }
+        int listed = type[id];
+        int[] ids = liveIds[listed];
+        int last = ids[--liveCounts[listed]];
+        ids[slot] = last;
+        liveSlot[last] = slot;
+        liveSlot[id] = -1;
+    }
+
+    /**
+     * Returns the ids of the objects of a type in play, destroyed ones included until they are
+     * parked. Only the first {@link #getLiveCount} are valid, and the array may be replaced when
+     * objects are activated, so read it again rather than caching it.
+     */
+    public int[] getLiveIds(GameObject.ObjectType type) {
+        return liveIds[type.ordinal()];
+    }
+
+    public int getLiveCount(GameObject.ObjectType type) {
+        return liveCounts[type.ordinal()];
+    }
+
+    /** Returns one past the highest id in use; rows below it may be free. */
+    public int size() {
+        return size;
+    }
+
+    /** Returns the number of rows in use, parked objects included. */
+    public int getCount() {
+        return count;
+    }
+
+    public GameObject getObject(int id) {
+        return objects[id];
+    }
+
+    public Body getBody(int id) {
+        return bodies[id];
+    }
+
+    public void setBody(int id, Body body) {
+        bodies[id] = body;
+    }
+
+    public boolean hasFlag(int id, byte flag) {
+        return (flags[id] & flag) != 0;
+    }
+
+    public void setFlag(int id, byte flag, boolean value) {
+        flags[id] = (byte) (value ? flags[id] | flag : flags[id] & ~flag);
+    }
+
+    /**
+     * Returns whether an object is in play and not flagged for removal.
+     */
+    public boolean isLive(int id) {
+        return (flags[id] & (ACTIVE | DESTROYED)) == ACTIVE;
+    }
+
+    /**
+     * Returns whether an object is live and inside the activation zone, so it takes part in collisions.
+     */
+    public boolean isAwake(int id) {
+        return (flags[id] & (ACTIVE | DESTROYED | DORMANT)) == ACTIVE;
+    }
+
+    /**
+     * Returns the id of a texture, registering it on first use. Null has no id.
+     */
+    public short textureId(TextureRegion texture) {
+        if (texture == null) {
+            return NO_TEXTURE;
+        }
+        int index = textures.indexOf(texture, true);
+        if (index < 0) {
+            index = textures.size;
+            textures.add(texture);
+        }
+        return (short) index;
+    }
+
+    /**
+     * Returns the texture with the given id, or null for none.
+     */
+    public TextureRegion getTexture(short textureId) {
+        return textureId == NO_TEXTURE ? null : textures.get(textureId);
+    }
+
+    /** Returns the number of textures registered; ids run from 0 to one less. */
+    public int getTextureCount() {
+        return textures.size;
+    }
+
+    /**
+     * Remembers every position as the start of the next simulation step.
+     */
+    public void savePositions() {
+        System.arraycopy(x, 0, prevX, 0, size);
+        System.arraycopy(y, 0, prevY, 0, size);
+    }
+
+    /**
+     * Pulls the positions of moving bodies from Box2D. Call after every world step.
+     * Bodies at rest and dormant objects only move through their views, so their rows are already current.
+     */
+    public void syncBodies() {
+        for (int t = 0; t < TYPES.length; t++) {
+            int[] ids = liveIds[t];
+            for (int i = 0; i < liveCounts[t]; i++) {
+                int id = ids[i];
+                if ((flags[id] & DORMANT) != 0 || (vx[id] == 0 && vy[id] == 0) || bodies[id] == null) {
+                    continue;
+                }
+                Vector2 position = bodies[id].getPosition();
+                x[id] = position.x;
+                y[id] = position.y;
+            }
+        }
+    }
+
+    /**
+     * Returns a hash of the ids, types and exact positions of the live objects.
+     * Two simulations that agree bit for bit have the same hash.
+     */
+    public int hash() {
+        int hash = 1;
+        for (int id = 0; id < size; id++) {
+            if (!isLive(id)) {
+                continue;
+            }
+            hash = 31 * hash + id;
+            hash = 31 * hash + type[id];
+            hash = 31 * hash + Float.floatToIntBits(x[id]);
+            hash = 31 * hash + Float.floatToIntBits(y[id]);
+        }
+        return hash;
+    }
+
+    private void allocate(int capacity) {
+        x = grow(x, capacity);
+        y = grow(y, capacity);
+        prevX = grow(prevX, capacity);
+        prevY = grow(prevY, capacity);
+        vx = grow(vx, capacity);
+        vy = grow(vy, capacity);
+        width = grow(width, capacity);
+        height = grow(height, capacity);
+        radius = grow(radius, capacity);
+
+        byte[] type = new byte[capacity];
+        byte[] flags = new byte[capacity];
+        short[] textureId = new short[capacity];
+        GameObject[] objects = new GameObject[capacity];
+        Body[] bodies = new Body[capacity];
+        int[] liveSlot = new int[capacity];
+        Arrays.fill(liveSlot, -1);
+        if (this.type != null) {
+            System.arraycopy(this.type, 0, type, 0, size);
+            System.arraycopy(this.flags, 0, flags, 0, size);
+            System.arraycopy(this.textureId, 0, textureId, 0, size);
+            System.arraycopy(this.objects, 0, objects, 0, size);
+            System.arraycopy(this.bodies, 0, bodies, 0, size);
+            System.arraycopy(this.liveSlot, 0, liveSlot, 0, size);
+        }
+        this.liveSlot = liveSlot;
+        this.type = type;
+        this.flags = flags;
+        this.textureId = textureId;
+        this.objects = objects;
+        this.bodies = bodies;
+    }
+
+    private float[] grow(float[] array, int capacity) {
+        float[] grown = new float[capacity];
+        if (array != null) {
+            System.arraycopy(array, 0, grown, 0, size);
+        }
+        return grown;
+    }
+}
@@ -0,0 +1,202 @@
+package io.github.cristinarubylee.models;
+
+import com.badlogic.gdx.math.MathUtils;
+
+/**
+ * Shape and motion of a formation, relative to its center.
+ *
+ * Each member has an anchor, which keeps its place relative to the center, and an arm, which is
+ * transformed by a 2x2 matrix the pattern produces once per tick. A member sits at
+ * {@code center + anchor + matrix * arm}. Anchors and arms are laid out once when the formation
+ * spawns, so patterns only need trigonometry for their matrix, never per member.
+ */
+public interface FormationPattern {
+
+    /**
+     * Writes the anchor and arm of every member.
+     */
+    void layout(int count, float[] anchorX, float[] anchorY, float[] armX, float[] armY);
+
+    /**
+     * Writes the matrix for the given time since spawn, as {m00, m01, m10, m11}.
+     */
+    void transform(float time, float[] matrix);
+
+    /** Writes a rotation by the given angle, the matrix of a pattern that spins. */
+    static void rotation(float degrees, float[] matrix) {
+        float cos = MathUtils.cosDeg(degrees);
+        float sin = MathUtils.sinDeg(degrees);
+        matrix[0] = cos;
+        matrix[1] = -sin;
+        matrix[2] = sin;
+        matrix[3] = cos;
+    }
+
+    /**
+     * Members evenly spaced on a circle that spins. The circle grows past the default formation
+     * size so members don't pile up.
+     */
+    class Ring implements FormationPattern {
+        private final float angularSpeed;
+
+        /**
+         * @param angularSpeed degrees per second
+         */
+        public Ring(float angularSpeed) {
+            this.angularSpeed = angularSpeed;
+        }
+
+        @Override
+        public void layout(int count, float[] anchorX, float[] anchorY, float[] armX, float[] armY) {
+            float radius = Math.max(1, count / (float) NightmareQueue.DEFAULT_COUNT);
+            float spacing = 360f / count;
+            for (int i = 0; i < count; i++) {
+                anchorX[i] = 0;
+                anchorY[i] = 0;
+                armX[i] = radius * MathUtils.cosDeg(spacing * i);
+                armY[i] = radius * MathUtils.sinDeg(spacing * i);
+            }
+        }
+
+        @Override
+        public void transform(float time, float[] matrix) {
+            rotation(angularSpeed * time, matrix);
+        }
+    }
+
+    /**
+     * Members on an arm that winds out from the center, and spins.
+     */
+    class Spiral implements FormationPattern {
+        private final float angularSpeed;
+        private final float step;
+        private final float growth;
+
+        /**
+         * @param angularSpeed degrees per second
+         * @param step         angle between neighbouring members, in degrees
+         * @param growth       distance each member is further out than the one before
+         */
+        public Spiral(float angularSpeed, float step, float growth) {
+            this.angularSpeed = angularSpeed;
+            this.step = step;
+            this.growth = growth;
+        }
+
+        @Override
+        public void layout(int count, float[] anchorX, float[] anchorY, float[] armX, float[] armY) {
+            for (int i = 0; i < count; i++) {
+                float radius = growth * (i + 1);
+                anchorX[i] = 0;
+                anchorY[i] = 0;
+                armX[i] = radius * MathUtils.cosDeg(step * i);
+                armY[i] = radius * MathUtils.sinDeg(step * i);
+            }
+        }
+
+        @Override
+        public void transform(float time, float[] matrix) {
+            rotation(angularSpeed * time, matrix);
+        }
+    }
+
+    /**
+     * A vertical column that does not turn.
+     */
+    class Wall implements FormationPattern {
+        private final float spacing;
+
+        public Wall(float spacing) {
+            this.spacing = spacing;
+        }
+
+        @Override
+        public void layout(int count, float[] anchorX, float[] anchorY, float[] armX, float[] armY) {
+            for (int i = 0; i < count; i++) {
+                anchorX[i] = 0;
+                anchorY[i] = (i - (count - 1) / 2f) * spacing;
+                armX[i] = 0;
+                armY[i] = 0;
+            }
+        }
+
+        @Override
+        public void transform(float time, float[] matrix) {
+            // Arms are empty
+        }
+    }
+
+    /**
+     * A leader with the others trailing behind it on two diagonals, like a flock.
+     */
+    class Vee implements FormationPattern {
+        private final float spacing;
+
+        public Vee(float spacing) {
+            this.spacing = spacing;
+        }
+
+        @Override
+        public void layout(int count, float[] anchorX, float[] anchorY, float[] armX, float[] armY) {
+            for (int i = 0; i < count; i++) {
+                // The leader, then one member each side per rank
+                int rank = (i + 1) / 2;
+                float side = i % 2 == 0 ? -1 : 1;
+                anchorX[i] = rank * spacing;
+                anchorY[i] = side * rank * spacing;
+                armX[i] = 0;
+                armY[i] = 0;
+            }
+        }
+
+        @Override
+        public void transform(float time, float[] matrix) {
+            // Arms are empty
+        }
+    }
+
+    /**
+     * A horizontal line along which a sine wave runs, each member a little behind the one ahead.
+     *
+     * Each arm is a unit vector at the member's phase. The matrix keeps only the vertical part of
+     * rotating it by the wave's angle, which is the sine of the angle plus the phase.
+     */
+    class SineLane implements FormationPattern {
+        private final float spacing;
+        private final float amplitude;
+        private final float angularSpeed;
+        private final float phaseStep;
+
+        /**
+         * @param spacing      horizontal distance between members
+         * @param amplitude    how far members swing up and down
+         * @param angularSpeed degrees of the wave per second
+         * @param phaseStep    degrees each member lags the one ahead of it
+         */
+        public SineLane(float spacing, float amplitude, float angularSpeed, float phaseStep) {
+            this.spacing = spacing;
+            this.amplitude = amplitude;
+            this.angularSpeed = angularSpeed;
+            this.phaseStep = phaseStep;
+        }
+
+        @Override
+        public void layout(int count, float[] anchorX, float[] anchorY, float[] armX, float[] armY) {
+            for (int i = 0; i < count; i++) {
+                anchorX[i] = i * spacing;
+                anchorY[i] = 0;
+                armX[i] = MathUtils.cosDeg(-phaseStep * i);
+                armY[i] = MathUtils.sinDeg(-phaseStep * i);
+            }
+        }
+
+        @Override
+        public void transform(float time, float[] matrix) {
+            float angle = angularSpeed * time;
+            matrix[0] = 0;
+            matrix[1] = 0;
+            matrix[2] = amplitude * MathUtils.sinDeg(angle);
+            matrix[3] = amplitude * MathUtils.cosDeg(angle);
+        }
+    }
+}
@@ -1,20 +1,26 @@
 package io.github.cristinarubylee.models;
 
-import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.*;
+import com.badlogic.gdx.utils.Pool;
 
-public abstract class GameObject {
+/**
+ * A view onto one row of an {@link EntityStore} and the Box2D body behind it.
+ *
+ * Reads come from the store; writes go to the store and, where they affect the
+ * simulation, to the body as well.
+ */
+public abstract class GameObject implements Pool.Poolable {
 
     public Body body() {
-        return body;
+        return entities.getBody(id);
     }
 
-    protected static final short CATEGORY_PLAYER = 0x0001;
-    protected static final short CATEGORY_NIGHTMARE = 0x0002;
-    protected static final short CATEGORY_PHOTON = 0x0004;
+    public static final short CATEGORY_PLAYER = 0x0001;
+    public static final short CATEGORY_NIGHTMARE = 0x0002;
+    public static final short CATEGORY_PHOTON = 0x0004;
 
     // Define which categories collide with which
     protected static final short MASK_PLAYER = CATEGORY_NIGHTMARE;  // Player collides with nightmares
@@ -22,91 +28,157 @@ public abstract class GameObject {
     protected static final short MASK_PHOTON = CATEGORY_NIGHTMARE;  // Photons collide with nightmares
 
 
+    /**
+     * Kind of object, with the layer it is drawn in; higher layers are drawn over lower ones.
+     */
     public enum ObjectType {
-        PLAYER,
-        PHOTON,
-        NIGHTMARE
+        PLAYER(1),
+        PHOTON(2),
+        NIGHTMARE(0);
+
+        private final int layer;
+
+        ObjectType(int layer) {
+            this.layer = layer;
+        }
+
+        public int getLayer() {
+            return layer;
+        }
     }
 
     // Attributes for all game objects
-    protected Body body;
+    protected final EntityStore entities;
+    protected final int id;
     protected World world;
-    private TextureRegion texture;
-    private float width;
-    private float height;
-    private boolean isDestroyed;
+
+    // Returned by getPosition, so reading a position does not allocate
+    private final Vector2 position = new Vector2();
 
     /**
      * Constructs a trivial game object.
      * The created object has no position or size. These should be set by the subclasses.
      */
-    public GameObject(World world, float x, float y, float width, float height) {
-        this.world = world;
-        this.width = width;
-        this.height = height;
+    public GameObject(EntityStore entities, World world, float x, float y, float width, float height) {
+        this(entities, world, x, y, width, height, BodyDef.BodyType.DynamicBody);
+    }
 
-        isDestroyed = false;
+    /**
+     * Constructs a game object with a body of the given type.
+     */
+    protected GameObject(EntityStore entities, World world, float x, float y, float width, float height,
+                         BodyDef.BodyType bodyType) {
+        this(entities, world, x, y, width, height, bodyType, true);
+    }
+
+    /**
+     * Constructs a game object with a body of the given type.
+     *
+     * @param fixtures whether to give the body its collision fixtures; leave them off when
+     *                 collisions are detected outside Box2D, so the body stays out of the broadphase
+     */
+    protected GameObject(EntityStore entities, World world, float x, float y, float width, float height,
+                         BodyDef.BodyType bodyType, boolean fixtures) {
+        this.entities = entities;
+        this.world = world;
 
         BodyDef bodyDef = new BodyDef();
-        bodyDef.type = BodyDef.BodyType.DynamicBody;
+        bodyDef.type = bodyType;
         bodyDef.position.set(x,y);
 
-        this.body = world.createBody(bodyDef);
+        Body body = world.createBody(bodyDef);
         body.setUserData(this);
-        addFixtures(body);
+        if (fixtures) {
+            addFixtures(body);
+        }
+
+        id = entities.create(this, body, x, y, width, height, getRadius());
     }
 
     protected abstract void addFixtures(Body body);
 
+    /** Returns the collision category of this object, one of the {@code CATEGORY_*} bits. */
+    public abstract short getCategoryBits();
+
+    /** Returns the categories this object collides with. */
+    public abstract short getMaskBits();
+
+    /** Returns the collision group; objects sharing a negative group never collide. */
+    public short getGroupIndex() {
+        return 0;
+    }
+
+    /** Returns the radius of a circular collision shape, or 0 if the object collides as a box of its size. */
+    public float getRadius() {
+        return 0;
+    }
+
+    /** Returns the row of this object in its {@link EntityStore}. */
+    public int getId() {
+        return id;
+    }
+
     // Accessors
     public void setTexture(TextureRegion texture) {
-        this.texture = texture;
+        entities.textureId[id] = entities.textureId(texture);
     }
 
     public void setWidth(float width) {
-        this.width = width;
+        entities.width[id] = width;
     }
 
     public void setHeight(float height) {
-        this.height = height;
+        entities.height[id] = height;
     }
 
     public void setSize(float width, float height) {
-        this.width = width;
-        this.height = height;
+        entities.width[id] = width;
+        entities.height[id] = height;
     }
 
     public float getWidth() {
-        return width;
+        return entities.width[id];
     }
 
     public float getHeight() {
-        return height;
+        return entities.height[id];
     }
 
 
     public float getX() {
-        return body.getPosition().x;
+        return entities.x[id];
     }
 
     public float getY() {
-        return body.getPosition().y;
+        return entities.y[id];
     }
 
     public Vector2 getPosition(){
-        return  body.getPosition();
+        return position.set(entities.x[id], entities.y[id]);
     }
 
+    // Bodies never rotate, so transforms always use an angle of 0
     public void setY(float value) {
-        body.setTransform(body.getPosition().x, value, body.getAngle());
+        setPosition(entities.x[id], value);
     }
 
     public void setX(float value) {
-        body.setTransform(value, body.getPosition().y, body.getAngle());
+        setPosition(value, entities.y[id]);
     }
 
     public void setPosition(Vector2 value) {
-        body.setTransform(value, body.getAngle());
+        setPosition(value.x, value.y);
+    }
+
+    /**
+     * Moves the object. A dormant object only moves in its row; the body catches up when it wakes.
+     */
+    public void setPosition(float x, float y) {
+        entities.x[id] = x;
+        entities.y[id] = y;
+        if (!isDormant()) {
+            body().setTransform(x, y, 0);
+        }
     }
 
 //    public void moveTo(Vector2 target) {
@@ -126,36 +198,160 @@ public abstract class GameObject {
 
 
     public void translateX(float value) {
-        body.setTransform(value + body.getPosition().x, body.getPosition().y, body.getAngle());
+        setPosition(entities.x[id] + value, entities.y[id]);
     }
 
     public void translateY(float value) {
-        body.setTransform(body.getPosition().x, value + body.getPosition().y, body.getAngle());
+        setPosition(entities.x[id], entities.y[id] + value);
     }
 
     public void translate(Vector2 value) {
-        body.setTransform(body.getPosition().x + value.x, body.getPosition().y + value.y, body.getAngle());
+        setPosition(entities.x[id] + value.x, entities.y[id] + value.y);
+    }
+
+    /**
+     * Sets the velocity the solver moves the body with. A dormant object is not moved by the
+     * solver, so its owner moves it with {@link #setPosition} until it wakes.
+     */
+    public void setVelocity(float vx, float vy) {
+        entities.vx[id] = vx;
+        entities.vy[id] = vy;
+        if (!isDormant()) {
+            body().setLinearVelocity(vx, vy);
+        }
+    }
+
+    /** Returns the velocity last set with {@link #setVelocity}. */
+    public float getVelocityX() {
+        return entities.vx[id];
+    }
+
+    public float getVelocityY() {
+        return entities.vy[id];
+    }
+
+    /**
+     * Returns whether the object is outside the activation zone, out of Box2D and collisions.
+     */
+    public boolean isDormant() {
+        return entities.hasFlag(id, EntityStore.DORMANT);
+    }
+
+    /**
+     * Takes the object out of Box2D while it is outside the activation zone, or puts it back
+     * where its row says it is, with its last velocity, once it enters.
+     */
+    public void setDormant(boolean dormant) {
+        entities.setFlag(id, EntityStore.DORMANT, dormant);
+        Body body = body();
+        if (!dormant) {
+            body.setTransform(entities.x[id], entities.y[id], 0);
+            body.setLinearVelocity(entities.vx[id], entities.vy[id]);
+        }
+        body.setActive(!dormant);
     }
 
     public boolean isDestroyed() {
-        return isDestroyed;
+        return entities.hasFlag(id, EntityStore.DESTROYED);
     }
 
     public void setDestroyed(boolean value) {
-        isDestroyed = value;
+        entities.setFlag(id, EntityStore.DESTROYED, value);
+    }
+
+    /**
+     * Returns whether a destroy command for this object is waiting to be applied.
+     */
+    public boolean isPendingDestroy() {
+        return entities.hasFlag(id, EntityStore.PENDING_DESTROY);
+    }
+
+    public void setPendingDestroy(boolean value) {
+        entities.setFlag(id, EntityStore.PENDING_DESTROY, value);
     }
 
     public void setBody(Body body){
-        this.body = body;
+        entities.setBody(id, body);
+    }
+
+    /**
+     * Returns whether the object is in play, as opposed to parked in its pool.
+     */
+    public boolean isActive() {
+        return entities.hasFlag(id, EntityStore.ACTIVE);
+    }
+
+    /**
+     * Re-arms a pooled object at the given position.
+     */
+    public void activate(float x, float y) {
+        entities.prevX[id] = x;
+        entities.prevY[id] = y;
+        entities.vx[id] = 0;
+        entities.vy[id] = 0;
+        entities.activate(id);
+        setPosition(x, y);
+
+        Body body = body();
+        body.setLinearVelocity(0, 0);
+        body.setAngularVelocity(0);
+        body.setActive(true);
+    }
+
+    /**
+     * Parks the object when it is returned to its pool.
+     * The body is deactivated rather than destroyed so it can be reused.
+     */
+    @Override
+    public void reset() {
+        entities.deactivate(id);
+        entities.vx[id] = 0;
+        entities.vy[id] = 0;
+        Body body = body();
+        if (body != null) {
+            body.setActive(false);
+        }
+    }
+
+    /**
+     * Destroys the body and frees the row of an object that will not be used again.
+     */
+    public void discard() {
+        Body body = body();
+        if (body != null) {
+            world.destroyBody(body);
+        }
+        entities.release(id);
     }
 
     public abstract ObjectType getType();
 
 
+    /**
+     * Remembers the current position as the start of the next simulation step.
+     */
+    public void savePosition() {
+        entities.prevX[id] = entities.x[id];
+        entities.prevY[id] = entities.y[id];
+    }
+
     public void draw(Batch batch) {
+        draw(batch, 1);
+    }
+
+    /**
+     * Draws the object between its previous and current position.
+     *
+     * @param alpha how far the render time is into the next simulation step, from 0 to 1
+     */
+    public void draw(Batch batch, float alpha) {
         // Since Box2D bodies are centered while LibGDX draws from the bottom-left, we subtract to align
-        if (!isDestroyed) {
-            batch.draw(texture, body.getPosition().x - width/2, body.getPosition().y - height/2, width, height);
+        if (entities.isLive(id)) {
+            float x = entities.prevX[id] + (entities.x[id] - entities.prevX[id]) * alpha;
+            float y = entities.prevY[id] + (entities.y[id] - entities.prevY[id]) * alpha;
+            float width = entities.width[id];
+            float height = entities.height[id];
+            batch.draw(entities.getTexture(entities.textureId[id]), x - width/2, y - height/2, width, height);
         }
     }
 }
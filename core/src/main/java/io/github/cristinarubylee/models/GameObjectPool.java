@@ -0,0 +1,191 @@
+package io.github.cristinarubylee.models;
+
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.IntMap;
+import com.badlogic.gdx.utils.Pool;
+
+/**
+ * Pool of game objects whose Box2D bodies are parked instead of destroyed.
+ *
+ * Freed objects have their bodies deactivated (see {@link GameObject#reset()}) so they
+ * drop out of the broadphase, and are re-armed at a new position when obtained again.
+ * Bodies are only destroyed when the pool is full or cleared.
+ *
+ * Parked objects are kept here rather than in {@link Pool}, so the order they are handed out in
+ * can be saved and restored with the rest of the simulation; see {@link #getParkedIds} and
+ * {@link #arrangeParked}.
+ */
+public class GameObjectPool<T extends GameObject> extends Pool<T> {
+
+    /** Creates a new object (and its body) at the given position. */
+    public interface Factory<T> {
+        T create(World world, float x, float y);
+    }
+
+    private final World world;
+    private final Factory<T> factory;
+    // Parked objects; the last one is obtained first
+    private final Array<T> parked;
+
+    // Statistics
+    private int requests;
+    private int hits;
+    private int live;
+    private int highWater;
+
+    public GameObjectPool(World world, Factory<T> factory) {
+        this(world, factory, 16, Integer.MAX_VALUE);
+    }
+
+    public GameObjectPool(World world, Factory<T> factory, int initialCapacity, int max) {
+        super(initialCapacity, max);
+        this.world = world;
+        this.factory = factory;
+        parked = new Array<>(initialCapacity);
+    }
+
+    /**
+     * Returns an active object at the given position, reusing a parked one if available.
+     */
+    public T obtain(float x, float y) {
+        T object;
+        requests++;
+        if (getFree() > 0) {
+            hits++;
+            object = obtain();
+            object.activate(x, y);
+        } else {
+            // Create directly at the spawn point to skip a redundant transform
+            object = factory.create(world, x, y);
+        }
+
+        live++;
+        highWater = Math.max(highWater, live);
+        return object;
+    }
+
+    @Override
+    public T obtain() {
+        return parked.size == 0 ? newObject() : parked.pop();
+    }
+
+    @Override
+    protected T newObject() {
+        // Only reached through fill(), so park the new body straight away
+        T object = factory.create(world, 0, 0);
+        object.reset();
+        return object;
+    }
+
+    @Override
+    public void free(T object) {
+        if (object == null) {
+            throw new IllegalArgumentException("object cannot be null.");
+        }
+        live--;
+        if (parked.size < max) {
+            parked.add(object);
+            reset(object);
+        } else {
+            discard(object);
+        }
+    }
+
+    @Override
+    public void fill(int size) {
+        for (int i = 0; i < size && parked.size < max; i++) {
+            parked.add(newObject());
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < parked.size; i++) {
+            discard(parked.get(i));
+        }
+        parked.clear();
+    }
+
+    @Override
+    public int getFree() {
+        return parked.size;
+    }
+
+    /**
+     * Writes the ids of the parked objects into the given array, the one obtained last first.
+     */
+    public void getParkedIds(IntArray out) {
+        out.clear();
+        for (int i = 0; i < parked.size; i++) {
+            out.add(parked.get(i).getId());
+        }
+    }
+
+    /**
+     * Reorders the parked objects so those with the given ids are obtained next, the last id first.
+     * Parked objects not listed are obtained after them, lowest id first.
+     *
+     * @throws GdxRuntimeException if an id is not that of an object parked here
+     */
+    public void arrangeParked(IntArray ids) {
+        IntMap<T> byId = new IntMap<>(parked.size);
+        for (int i = 0; i < parked.size; i++) {
+            byId.put(parked.get(i).getId(), parked.get(i));
+        }
+        parked.clear();
+
+        Array<T> listed = new Array<>(ids.size);
+        for (int i = 0; i < ids.size; i++) {
+            T object = byId.remove(ids.get(i));
+            if (object == null) {
+                throw new GdxRuntimeException("Object " + ids.get(i) + " is not parked in this pool");
+            }
+            listed.add(object);
+        }
+        for (T object : byId.values()) {
+            parked.add(object);
+        }
+        // Highest id at the bottom, so the lowest is obtained first
+        parked.sort((a, b) -> Integer.compare(b.getId(), a.getId()));
+        parked.addAll(listed);
+    }
+
+    @Override
+    public void freeAll(Array<T> objects) {
+        // Pool.freeAll bypasses free(), so route through it to keep the live count right
+        for (int i = 0; i < objects.size; i++) {
+            T object = objects.get(i);
+            if (object != null) {
+                free(object);
+            }
+        }
+    }
+
+    @Override
+    protected void discard(T object) {
+        object.discard();
+    }
+
+    /** Returns the number of objects currently handed out by this pool. */
+    public int getLive() {
+        return live;
+    }
+
+    /** Returns the largest number of objects handed out at the same time. */
+    public int getHighWater() {
+        return highWater;
+    }
+
+    /** Returns the total number of obtain requests. */
+    public int getRequests() {
+        return requests;
+    }
+
+    /** Returns the fraction of obtain requests served by a parked object. */
+    public float getHitRate() {
+        return requests == 0 ? 0 : (float) hits / requests;
+    }
+}
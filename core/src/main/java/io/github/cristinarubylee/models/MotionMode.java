@@ -0,0 +1,15 @@
+package io.github.cristinarubylee.models;
+
+/**
+ * How moving objects are driven through Box2D.
+ */
+public enum MotionMode {
+    /** Objects are teleported to their new position every step with {@code setTransform}. */
+    TRANSFORM,
+    /**
+     * Objects are given the velocity that carries them to their new position, and the solver moves them.
+     * Nightmares become kinematic bodies; photons stay dynamic, since Box2D never reports contacts
+     * between two kinematic bodies.
+     */
+    KINEMATIC
+}
@@ -13,23 +13,56 @@ public class Nightmare extends GameObject{
         return damage;
     }
 
-    public Nightmare(World world, float x, float y) {
-        super(world, x, y, 1f, 1f);
+    public Nightmare(EntityStore entities, World world, float x, float y) {
+        this(entities, world, x, y, MotionMode.TRANSFORM);
+    }
+
+    public Nightmare(EntityStore entities, World world, float x, float y, MotionMode motionMode) {
+        this(entities, world, x, y, motionMode, true);
+    }
+
+    /**
+     * @param fixtures whether to give the body its collision fixture
+     */
+    public Nightmare(EntityStore entities, World world, float x, float y, MotionMode motionMode, boolean fixtures) {
+        super(entities, world, x, y, 1f, 1f,
+            motionMode == MotionMode.KINEMATIC ? BodyDef.BodyType.KinematicBody : BodyDef.BodyType.DynamicBody,
+            fixtures);
+    }
+
+    @Override
+    public short getCategoryBits() {
+        return CATEGORY_NIGHTMARE;
+    }
+
+    @Override
+    public short getMaskBits() {
+        return MASK_NIGHTMARE;
+    }
+
+    @Override
+    public short getGroupIndex() {
+        return -2;
+    }
+
+    @Override
+    public float getRadius() {
+        return 0.5f;
     }
 
     @Override
     protected void addFixtures(Body body) {
         FixtureDef fixtureDef = new FixtureDef();
         CircleShape circle = new CircleShape();
-        circle.setRadius(0.5f);
+        circle.setRadius(getRadius());
 
         fixtureDef.shape = circle;
 
         fixtureDef.isSensor = true;
 
-        fixtureDef.filter.categoryBits = CATEGORY_NIGHTMARE;
-        fixtureDef.filter.maskBits = MASK_NIGHTMARE;
-        fixtureDef.filter.groupIndex = -2;
+        fixtureDef.filter.categoryBits = getCategoryBits();
+        fixtureDef.filter.maskBits = getMaskBits();
+        fixtureDef.filter.groupIndex = getGroupIndex();
 
         body.createFixture(fixtureDef);
         circle.dispose();
@@ -1,65 +1,309 @@
 package io.github.cristinarubylee.models;
 
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Pool;
 
-public class NightmareQueue {
-    private final TextureRegion basic = new TextureRegion(new Texture("drop.png"));
+public class NightmareQueue implements Pool.Poolable {
+    // Defaults for formations spawned without a count or speed
+    public static final int DEFAULT_COUNT = 8;
+    public static final float DEFAULT_SPEED = 5f;
+    /** Floats per member in the buffers of {@link #computeTargets} and {@link #applyTargets}. */
+    public static final int FLOATS_PER_MEMBER = 4;
 
     private final Array<Nightmare> nightmares;
+    private final GameObjectPool<Nightmare> pool;
+    private final TextureRegion basic;
+    private final MotionMode motionMode;
 
-    private Vector2 center;
-    private float currentAngle = 0;
-    private float speed = 5f; // Represents bullets shot per second
-    private float radius = 1;
+    private final Vector2 center;
+    private NightmareType type;
+    private float spawnX;
+    private float time;
+    private float speed = DEFAULT_SPEED; // Horizontal speed of the center, in world units per second
+    // Horizontal extent of the formation, for telling when it has fully entered the screen
+    private float width;
+    // Members whose left edge is right of this are dormant, moved here instead of by Box2D
+    private float activationEdge = Float.MAX_VALUE;
 
+    // Member offsets laid out by the pattern at spawn, and its matrix for this tick and the last
+    private float[] anchorX = new float[0];
+    private float[] anchorY = new float[0];
+    private float[] armX = new float[0];
+    private float[] armY = new float[0];
+    private float[] matrix = new float[4];
+    private float[] previousMatrix = new float[4];
+    // Targets of the members, when updated on its own
+    private float[] scratch = new float[0];
+
+    // Lifecycle
+    private State state;
+    private int alive;
+
+    /**
+     * Shape of a formation. A CIRCLE spins its members around its center, a WALL is a vertical
+     * column, a SPIRAL spins an arm winding out from the center, a SINE is a line a wave runs
+     * along, and a V is a leader with the others trailing on two diagonals.
+     */
     public enum NightmareType {
-        CIRCLE,
-        WALL
+        CIRCLE(new FormationPattern.Ring(100)),
+        WALL(new FormationPattern.Wall(1)),
+        SPIRAL(new FormationPattern.Spiral(60, 40, 0.3f)),
+        SINE(new FormationPattern.SineLane(0.8f, 1.5f, 180, 30)),
+        V(new FormationPattern.Vee(0.8f));
+
+        private final FormationPattern pattern;
+
+        NightmareType(FormationPattern pattern) {
+            this.pattern = pattern;
+        }
+
+        public FormationPattern getPattern() {
+            return pattern;
+        }
+    }
+
+    /**
+     * Lifecycle of a formation.
+     *
+     * SPAWNING while it enters the screen, ACTIVE once fully in play, DRAINING when no member is
+     * left alive but some are still waiting to be removed, and RETIRED once every slot is empty.
+     */
+    public enum State {
+        SPAWNING,
+        ACTIVE,
+        DRAINING,
+        RETIRED
     }
-    public NightmareQueue(World world, float x, float y, NightmareType nightmareType) {
+
+    /**
+     * Creates an empty, retired formation. Call {@link #spawn} to fill it.
+     */
+    public NightmareQueue(GameObjectPool<Nightmare> pool, TextureRegion texture) {
+        this(pool, texture, MotionMode.TRANSFORM);
+    }
+
+    /**
+     * Creates an empty, retired formation whose members are moved as given by the motion mode.
+     * The pool must create nightmares for the same mode.
+     */
+    public NightmareQueue(GameObjectPool<Nightmare> pool, TextureRegion texture, MotionMode motionMode) {
+        this.pool = pool;
+        this.basic = texture;
+        this.motionMode = motionMode;
         nightmares = new Array<>();
-        center = new Vector2(x,y);
-
-        switch (nightmareType){
-            case CIRCLE:
-                for (int i = 0; i < 8; i++){
-                    float tempX = radius * MathUtils.cosDeg(i * 45);
-                    float tempY = radius * MathUtils.sinDeg(i * 45);
-                    nightmares.add(createNightmare(world, tempX + x, tempY + y));
-                }
-            case WALL:
+        center = new Vector2();
+        state = State.RETIRED;
+    }
+
+    /**
+     * Fills this formation with the default number of members, centered at the given position.
+     */
+    public void spawn(float x, float y, NightmareType nightmareType) {
+        spawn(x, y, nightmareType, DEFAULT_COUNT, DEFAULT_SPEED);
+    }
+
+    /**
+     * Fills this formation with members centered at the given position.
+     *
+     * @param count number of members
+     * @param speed how fast the formation moves left, in world units per second
+     */
+    public void spawn(float x, float y, NightmareType nightmareType, int count, float speed) {
+        center.set(x, y);
+        spawnX = x;
+        time = 0;
+        type = nightmareType;
+        this.speed = speed;
 
+        layout(count);
+        for (int i = 0; i < count; i++) {
+            nightmares.add(createNightmare(x + offsetX(i, matrix), y + offsetY(i, matrix)));
         }
+
+        alive = nightmares.size;
+        state = alive > 0 ? State.SPAWNING : State.RETIRED;
     }
 
-    private Nightmare createNightmare(World world, float x, float y){
-        Nightmare nightmare = new Nightmare(world, x, y);
+    /**
+     * Lays the members out once, and measures the formation; every tick after this only
+     * transforms their arms.
+     */
+    private void layout(int count) {
+        if (anchorX.length < count) {
+            anchorX = new float[count];
+            anchorY = new float[count];
+            armX = new float[count];
+            armY = new float[count];
+        }
+        FormationPattern pattern = type.getPattern();
+        pattern.layout(count, anchorX, anchorY, armX, armY);
+        pattern.transform(time, matrix);
+
+        float left = 0;
+        float right = 0;
+        for (int i = 0; i < count; i++) {
+            // An arm may turn to any angle, so it can reach its full length either way
+            float reach = (float) Math.sqrt(armX[i] * armX[i] + armY[i] * armY[i]);
+            left = Math.min(left, anchorX[i] - reach);
+            right = Math.max(right, anchorX[i] + reach);
+        }
+        width = right - left;
+    }
+
+    private Nightmare createNightmare(float x, float y){
+        Nightmare nightmare = pool.obtain(x, y);
         nightmare.setTexture(basic);
+        if (x - nightmare.getWidth() / 2 > activationEdge) {
+            nightmare.setDormant(true);
+        }
         return nightmare;
     }
 
+    /**
+     * Returns every member to the pool and empties the formation, leaving it retired.
+     */
+    public void clear() {
+        // In reverse, so members obtained again in order get back the same objects
+        for (int i = nightmares.size - 1; i >= 0; i--) {
+            Nightmare nightmare = nightmares.get(i);
+            if (nightmare != null) {
+                pool.free(nightmare);
+            }
+        }
+        reset();
+    }
+
+    /**
+     * Writes where the formation is in its pattern and the state of every slot. Anchors and arms
+     * are laid out again on restore, so only the members themselves are written.
+     */
+    public void save(WorldSnapshot snapshot) {
+        snapshot.writeByte(type.ordinal());
+        snapshot.writeByte(state.ordinal());
+        snapshot.writeInt(nightmares.size);
+        snapshot.writeInt(alive);
+        snapshot.writeFloat(center.x);
+        snapshot.writeFloat(center.y);
+        snapshot.writeFloat(spawnX);
+        snapshot.writeFloat(time);
+        snapshot.writeFloat(speed);
+        for (Nightmare nightmare : nightmares) {
+            snapshot.writeByte(nightmare != null ? 1 : 0);
+            if (nightmare != null) {
+                snapshot.writeFloat(nightmare.getX());
+                snapshot.writeFloat(nightmare.getY());
+                snapshot.writeFloat(nightmare.getVelocityX());
+                snapshot.writeFloat(nightmare.getVelocityY());
+            }
+        }
+    }
+
+    /**
+     * Refills this formation as saved by {@link #save}, taking its members from the pool.
+     */
+    public void restore(WorldSnapshot snapshot) {
+        clear();
+        type = NightmareType.values()[snapshot.readByte()];
+        State saved = State.values()[snapshot.readByte()];
+        int count = snapshot.readInt();
+        alive = snapshot.readInt();
+        center.set(snapshot.readFloat(), snapshot.readFloat());
+        spawnX = snapshot.readFloat();
+        time = snapshot.readFloat();
+        speed = snapshot.readFloat();
+
+        layout(count);
+        for (int i = 0; i < count; i++) {
+            if (snapshot.readByte() == 0) {
+                nightmares.add(null);
+                continue;
+            }
+            Nightmare nightmare = createNightmare(snapshot.readFloat(), snapshot.readFloat());
+            nightmare.setVelocity(snapshot.readFloat(), snapshot.readFloat());
+            nightmares.add(nightmare);
+        }
+        state = saved;
+    }
+
     public void update(float delta){
-        float angularSpeed = 100f;
-        currentAngle = (currentAngle + angularSpeed * delta) % 360;
+        if (scratch.length < nightmares.size * FLOATS_PER_MEMBER) {
+            scratch = new float[nightmares.size * FLOATS_PER_MEMBER];
+        }
+        computeTargets(delta, scratch, 0);
+        applyTargets(scratch, 0);
+    }
+
+    /**
+     * Moves the formation on and writes where each member should go, without touching any member.
+     * Formations only write their own block of the buffer, so several may compute at once.
+     *
+     * @param out    receives {@value #FLOATS_PER_MEMBER} floats per slot: target x, target y, and the
+     *               velocity that reaches the target in one step
+     * @param offset index of the first float of this formation
+     */
+    public void computeTargets(float delta, float[] out, int offset) {
+        float[] previous = matrix;
+        matrix = previousMatrix;
+        previousMatrix = previous;
+        float previousX = center.x;
+        time += delta;
+        type.getPattern().transform(time, matrix);
 
         center.add(-speed * delta, 0);
 
+        // Fully on screen once the formation has moved its own width away from the spawn point
+        if (state == State.SPAWNING && spawnX - center.x >= width + 1) {
+            state = State.ACTIVE;
+        }
+
+        for (int i = 0; i < nightmares.size; i++) {
+            Nightmare nightmare = nightmares.get(i);
+            if (nightmare == null || nightmare.isDestroyed()) {
+                continue;
+            }
+            float targetX = center.x + offsetX(i, matrix);
+            float targetY = center.y + offsetY(i, matrix);
+            // Velocity that carries the member from its last target to the new one in one step
+            float fromX = previousX + offsetX(i, previous);
+            float fromY = center.y + offsetY(i, previous);
+
+            int o = offset + i * FLOATS_PER_MEMBER;
+            out[o] = targetX;
+            out[o + 1] = targetY;
+            out[o + 2] = (targetX - fromX) / delta;
+            out[o + 3] = (targetY - fromY) / delta;
+        }
+    }
+
+    /**
+     * Moves the members to the targets written by {@link #computeTargets}, and destroys those that
+     * have left the screen. Members outside the activation zone are placed on their targets
+     * directly and woken as they enter it. Touches Box2D, so only one formation may apply at a time.
+     */
+    public void applyTargets(float[] in, int offset) {
+        int live = 0;
         for (int i = 0; i < nightmares.size; i++){
             Nightmare nightmare = nightmares.get(i);
 
             // Only update the nightmare if it isn't set to be destroyed
-            if (nightmare != null && !nightmare.isDestroyed() && nightmare.body != null){
+            if (nightmare != null && !nightmare.isDestroyed()){
+                int o = offset + i * FLOATS_PER_MEMBER;
+                float targetX = in[o];
 
-                float angle = (currentAngle + 45 * i);
+                boolean dormant = targetX - nightmare.getWidth() / 2 > activationEdge;
+                if (dormant != nightmare.isDormant()) {
+                    nightmare.setDormant(dormant);
+                }
 
-                nightmare.setX(center.x + radius * MathUtils.cosDeg(angle));
-                nightmare.setY(center.y + radius * MathUtils.sinDeg(angle));
+                if (motionMode == MotionMode.KINEMATIC && !dormant) {
+                    nightmare.setVelocity(in[o + 2], in[o + 3]);
+                } else {
+                    nightmare.setPosition(targetX, in[o + 1]);
+                }
 
 
                 // Applying force leads to over-shooting: creates creepy, almost organic movement!!
@@ -69,12 +313,31 @@ public class NightmareQueue {
 //                Vector2 direction = target.sub(currentPos);
 //                nightmare.body().applyForceToCenter(direction.scl(force), true);
 
-                if (nightmare.getX() < -2 * nightmare.getWidth()) {
+                if (targetX < -2 * nightmare.getWidth()) {
                     nightmare.setDestroyed(true);
+                } else {
+                    live++;
                 }
             }
         }
 
+        if (live == 0 && alive > 0) {
+            state = State.DRAINING;
+        }
+    }
+
+    /**
+     * Returns the horizontal offset of a member from the center under the given pattern matrix.
+     */
+    private float offsetX(int member, float[] matrix) {
+        return anchorX[member] + matrix[0] * armX[member] + matrix[1] * armY[member];
+    }
+
+    /**
+     * Returns the vertical offset of a member from the center under the given pattern matrix.
+     */
+    private float offsetY(int member, float[] matrix) {
+        return anchorY[member] + matrix[2] * armX[member] + matrix[3] * armY[member];
     }
 
     public void removeDestroyed(){
@@ -82,8 +345,44 @@ public class NightmareQueue {
             Nightmare nightmare = nightmares.get(i);
             if (nightmare != null && nightmare.isDestroyed()){
                 nightmares.set(i, null);
+                alive--;
             }
         }
+
+        if (alive == 0) {
+            state = State.RETIRED;
+        }
+    }
+
+    /**
+     * Sets where the activation zone ends. Members right of it stay out of Box2D and collisions,
+     * which is cheap for formations waiting off-screen. By default every member is active.
+     */
+    public void setActivationEdge(float x) {
+        activationEdge = x;
+    }
+
+    public NightmareType getType() {
+        return type;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isRetired() {
+        return state == State.RETIRED;
+    }
+
+    /**
+     * Clears the slots of a retired formation so it can be spawned again.
+     * The slot array and texture are kept for reuse.
+     */
+    @Override
+    public void reset() {
+        nightmares.clear();
+        alive = 0;
+        state = State.RETIRED;
     }
 
     public Array<Nightmare> getNightmares() {
@@ -17,25 +17,57 @@ public class Photon extends GameObject{
         life++;
     }
 
-    public Photon(World world, float x, float y) {
-        super(world, x, y, 0.2f, 0.2f);
+    public void setLife(int life) {
+        this.life = life;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        life = 0;
+    }
+
+    public Photon(EntityStore entities, World world, float x, float y) {
+        this(entities, world, x, y, true);
+    }
+
+    /**
+     * @param fixtures whether to give the body its collision fixture
+     */
+    public Photon(EntityStore entities, World world, float x, float y, boolean fixtures) {
+        super(entities, world, x, y, 0.2f, 0.2f, BodyDef.BodyType.DynamicBody, fixtures);
+        body().setBullet(true);
+    }
+
+    @Override
+    public short getCategoryBits() {
+        return CATEGORY_PHOTON;
+    }
+
+    @Override
+    public short getMaskBits() {
+        return MASK_PHOTON;
+    }
+
+    @Override
+    public float getRadius() {
+        return 0.1f;
     }
 
     @Override
     protected void addFixtures(Body body) {
         FixtureDef fixtureDef = new FixtureDef();
         CircleShape circle = new CircleShape();
-        circle.setRadius(0.1f);
+        circle.setRadius(getRadius());
 
         fixtureDef.shape = circle;
 
         //fixtureDef.isSensor = true;
 
-        fixtureDef.filter.categoryBits = CATEGORY_PHOTON;
-        fixtureDef.filter.maskBits = MASK_PHOTON;
+        fixtureDef.filter.categoryBits = getCategoryBits();
+        fixtureDef.filter.maskBits = getMaskBits();
 
         body.createFixture(fixtureDef);
-        body.setBullet(true);
         circle.dispose();
     }
 }
@@ -2,25 +2,24 @@ package io.github.cristinarubylee.models;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.audio.Sound;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.utils.Array;
 
 public class PhotonQueue {
-    private final Texture photonTexture;
+    private final TextureRegion photonTexture;
     private final Array<Photon> photons;
     private final float speed;
     private final float spacing;
     private final float lifespan;
-    private final World world;
+    private final GameObjectPool<Photon> pool;
     private final Sound photonSound;
+    private MotionMode motionMode = MotionMode.TRANSFORM;
 
-    public PhotonQueue(World world, Texture photonTexture, Sound photonSound) {
+    public PhotonQueue(GameObjectPool<Photon> pool, TextureRegion photonTexture, Sound photonSound) {
         this.photonTexture = photonTexture;
         this.photons = new Array<>();
-        this.world = world;
+        this.pool = pool;
         this.photonSound = photonSound;
 
         // Set default values for photon queue
@@ -29,28 +28,34 @@ public class PhotonQueue {
         lifespan = 50f;
     }
 
-    public PhotonQueue(World world, Texture photonTexture, float speed, float spacing, float lifespan, Sound photonSound) {
+    public PhotonQueue(GameObjectPool<Photon> pool, TextureRegion photonTexture, float speed, float spacing, float lifespan, Sound photonSound) {
         this.photonTexture = photonTexture;
         this.photonSound = photonSound;
         this.photons = new Array<>();
-        this.world = world;
+        this.pool = pool;
         this.speed = speed;
         this.spacing = spacing;
         this.lifespan = lifespan;
     }
-    public void fire(float x, float y) {
-        // Clean up trailing null-body photons
-        while (!photons.isEmpty() && photons.peek().body() == null) {
-            photons.pop();
-        }
-
+    /**
+     * Fires a photon from the given position, unless the last one is still too close.
+     *
+     * @return whether a photon was fired
+     */
+    public boolean fire(float x, float y) {
         // Check spacing condition OR if the list is now empty
         if (photons.isEmpty() || photons.peek().getX() > x + spacing) {
-            Photon photon = new Photon(world, x, y);
-            photon.setTexture(new TextureRegion(photonTexture));
+            Photon photon = pool.obtain(x, y);
+            if (motionMode == MotionMode.KINEMATIC) {
+                // Photons fly in a straight line, so the solver can move them from here on
+                photon.setVelocity(speed, 0);
+            }
+            photon.setTexture(photonTexture);
             photons.add(photon);
             photonSound.play();
+            return true;
         }
+        return false;
     }
 
 
@@ -59,19 +64,61 @@ public class PhotonQueue {
             Photon photon = photons.get(i);
 
             // Only update photon if it isn't set to be destroyed
-            if (!photon.isDestroyed() && photon.body != null){
+            if (!photon.isDestroyed()){
                 if (photon.getLife() > lifespan){
                     photon.setDestroyed(true);
                 } else if (photon.getX() > 16){
                     photon.setDestroyed(true);
                 } else {
-                    photon.translateX(speed * delta);
+                    if (motionMode == MotionMode.TRANSFORM) {
+                        photon.translateX(speed * delta);
+                    }
                     photon.incLife();
                 }
             }
         }
     }
 
+    /**
+     * Returns every photon to the pool.
+     */
+    public void clear() {
+        // In reverse, so photons obtained again in order get back the same objects
+        for (int i = photons.size - 1; i >= 0; i--) {
+            pool.free(photons.get(i));
+        }
+        photons.clear();
+    }
+
+    /**
+     * Writes the photons in flight, in firing order.
+     */
+    public void save(WorldSnapshot snapshot) {
+        snapshot.writeInt(photons.size);
+        for (Photon photon : photons) {
+            snapshot.writeFloat(photon.getX());
+            snapshot.writeFloat(photon.getY());
+            snapshot.writeFloat(photon.getVelocityX());
+            snapshot.writeFloat(photon.getVelocityY());
+            snapshot.writeInt(photon.getLife());
+        }
+    }
+
+    /**
+     * Replaces the photons in flight with those saved by {@link #save}, taking them from the pool.
+     */
+    public void restore(WorldSnapshot snapshot) {
+        clear();
+        int count = snapshot.readInt();
+        for (int i = 0; i < count; i++) {
+            Photon photon = pool.obtain(snapshot.readFloat(), snapshot.readFloat());
+            photon.setVelocity(snapshot.readFloat(), snapshot.readFloat());
+            photon.setLife(snapshot.readInt());
+            photon.setTexture(photonTexture);
+            photons.add(photon);
+        }
+    }
+
     public void removeDestroyed() {
         for (int i = photons.size - 1; i >= 0; i--){
             Photon photon = photons.get(i);
@@ -81,6 +128,13 @@ public class PhotonQueue {
         }
     }
 
+    /**
+     * Sets how photons are moved. Only affects photons fired afterwards.
+     */
+    public void setMotionMode(MotionMode motionMode) {
+        this.motionMode = motionMode;
+    }
+
     public Array<Photon> getPhotons() {
         return photons;
     }
@@ -9,8 +9,15 @@ public class Player extends GameObject{
     private int totalHealth;
     private int currHealth;
 
-    public Player(World world, float x, float y){
-        super(world, x, y, 1f, 1f);
+    public Player(EntityStore entities, World world, float x, float y){
+        this(entities, world, x, y, true);
+    }
+
+    /**
+     * @param fixtures whether to give the body its collision fixture
+     */
+    public Player(EntityStore entities, World world, float x, float y, boolean fixtures){
+        super(entities, world, x, y, 1f, 1f, BodyDef.BodyType.DynamicBody, fixtures);
         totalHealth = 100;
         currHealth = 100;
     }
@@ -24,8 +31,8 @@ public class Player extends GameObject{
 
         fixtureDef.isSensor = true;
 
-        fixtureDef.filter.categoryBits = CATEGORY_PLAYER;
-        fixtureDef.filter.maskBits = MASK_PLAYER;
+        fixtureDef.filter.categoryBits = getCategoryBits();
+        fixtureDef.filter.maskBits = getMaskBits();
 
         fixtureDef.shape = square;
         body.createFixture(fixtureDef);
@@ -37,9 +44,26 @@ public class Player extends GameObject{
         return ObjectType.PLAYER;
     }
 
+    @Override
+    public short getCategoryBits() {
+        return CATEGORY_PLAYER;
+    }
+
+    @Override
+    public short getMaskBits() {
+        return MASK_PLAYER;
+    }
+
     public int getTotalHealth(){return totalHealth;}
     public int getCurrHealth(){return currHealth;}
 
+    /**
+     * Sets the current health, bounded by 0 and totalHealth.
+     */
+    public void setCurrHealth(int health) {
+        currHealth = Math.max(0, Math.min(health, totalHealth));
+    }
+
 
     /**
      * Changes the current health by x, decreasing it if x is negative and increasing it if x is positive.
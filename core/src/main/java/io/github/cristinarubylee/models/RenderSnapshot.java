@@ -0,0 +1,243 @@
+package io.github.cristinarubylee.models;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Copy of what a frame draws: every live object with a texture, and the numbers shown in the HUD,
+ * debug statistics included, so drawing never reads the simulation itself.
+ *
+ * The simulation fills a snapshot with {@link #capture} after it ticks and rendering only reads it,
+ * so the two may run on different threads as long as a snapshot is never captured while it is
+ * being drawn. Rows are packed layer by layer, in draw order, and the arrays only grow, so
+ * capturing does not allocate once the snapshot has seen the largest scene.
+ */
+public class RenderSnapshot {
+    // Rows, one per object drawn
+    public float[] x;
+    public float[] y;
+    public float[] prevX;
+    public float[] prevY;
+    public float[] width;
+    public float[] height;
+    public byte[] type;
+    public short[] textureId;
+    private int size;
+
+    // Textures referenced by textureId, copied from the entity store as it registers them
+    private final Array<TextureRegion> textures;
+
+    // HUD
+    private int playerHealth;
+    private int liveBodies;
+    private int formations;
+
+    // Debug statistics
+    private final PoolStats photonPool = new PoolStats();
+    private final PoolStats nightmarePool = new PoolStats();
+    private int voices;
+    private int maxVoices;
+    private int droppedSounds;
+
+    /**
+     * Usage of a {@link GameObjectPool} when the snapshot was captured.
+     */
+    public static class PoolStats {
+        private int live;
+        private int free;
+        private int highWater;
+        private float hitRate;
+
+        public void set(GameObjectPool<?> pool) {
+            live = pool.getLive();
+            free = pool.getFree();
+            highWater = pool.getHighWater();
+            hitRate = pool.getHitRate();
+        }
+
+        public int getLive() {
+            return live;
+        }
+
+        public int getFree() {
+            return free;
+        }
+
+        public int getHighWater() {
+            return highWater;
+        }
+
+        public float getHitRate() {
+            return hitRate;
+        }
+    }
+
+    public RenderSnapshot() {
+        this(128);
+    }
+
+    public RenderSnapshot(int initialCapacity) {
+        textures = new Array<>();
+        allocate(Math.max(1, initialCapacity));
+    }
+
+    /**
+     * Replaces the contents with the live, textured objects of a store and the given HUD values.
+     */
+    public void capture(EntityStore entities, int playerHealth, int liveBodies, int formations) {
+        for (int i = textures.size; i < entities.getTextureCount(); i++) {
+            textures.add(entities.getTexture((short) i));
+        }
+
+        int count = 0;
+        for (GameObject.ObjectType layer : EntityStore.DRAW_ORDER) {
+            int[] ids = entities.getLiveIds(layer);
+            int listed = entities.getLiveCount(layer);
+            for (int i = 0; i < listed; i++) {
+                int id = ids[i];
+                if (!entities.isLive(id) || entities.textureId[id] < 0) {
+                    continue;
+                }
+                if (count == x.length) {
+                    // Keep the rows captured so far
+                    size = count;
+                    allocate(count * 2);
+                }
+                x[count] = entities.x[id];
+                y[count] = entities.y[id];
+                prevX[count] = entities.prevX[id];
+                prevY[count] = entities.prevY[id];
+                width[count] = entities.width[id];
+                height[count] = entities.height[id];
+                type[count] = entities.type[id];
+                textureId[count] = entities.textureId[id];
+                count++;
+            }
+        }
+        size = count;
+
+        this.playerHealth = playerHealth;
+        this.liveBodies = liveBodies;
+        this.formations = formations;
+    }
+
+    /**
+     * Draws the objects, except those of a type drawn elsewhere, between their previous and current position.
+     *
+     * @param alpha    how far the render time is into the next simulation step, from 0 to 1
+     * @param excluded type not to draw, or null to draw all
+     */
+    public void draw(Batch batch, float alpha, GameObject.ObjectType excluded) {
+        draw(batch, alpha, excluded, null);
+    }
+
+    /**
+     * Draws the objects that overlap the view, except those of a type drawn elsewhere, between
+     * their previous and current position.
+     *
+     * @param alpha    how far the render time is into the next simulation step, from 0 to 1
+     * @param excluded type not to draw, or null to draw all
+     * @param view     area seen by the camera, or null to draw everything
+     * @return the number of objects drawn
+     */
+    public int draw(Batch batch, float alpha, GameObject.ObjectType excluded, Rectangle view) {
+        int skipped = excluded == null ? -1 : excluded.ordinal();
+        int drawn = 0;
+        for (int i = 0; i < size; i++) {
+            if (type[i] == skipped) {
+                continue;
+            }
+            // Positions are centers while LibGDX draws from the bottom-left
+            float drawX = prevX[i] + (x[i] - prevX[i]) * alpha - width[i] / 2;
+            float drawY = prevY[i] + (y[i] - prevY[i]) * alpha - height[i] / 2;
+            if (view != null && !overlaps(view, drawX, drawY, width[i], height[i])) {
+                continue;
+            }
+            batch.draw(textures.get(textureId[i]), drawX, drawY, width[i], height[i]);
+            drawn++;
+        }
+        return drawn;
+    }
+
+    /**
+     * Returns whether a box, given by its bottom-left corner and size, overlaps the view.
+     */
+    public static boolean overlaps(Rectangle view, float x, float y, float width, float height) {
+        return x < view.x + view.width && x + width > view.x && y < view.y + view.height && y + height > view.y;
+    }
+
+    /** Returns the number of objects captured. */
+    public int size() {
+        return size;
+    }
+
+    public int getPlayerHealth() {
+        return playerHealth;
+    }
+
+    public int getLiveBodyCount() {
+        return liveBodies;
+    }
+
+    public int getFormationCount() {
+        return formations;
+    }
+
+    public PoolStats getPhotonPool() {
+        return photonPool;
+    }
+
+    public PoolStats getNightmarePool() {
+        return nightmarePool;
+    }
+
+    /**
+     * Records the usage of the voices that play the simulation's sounds.
+     */
+    public void setVoices(int voices, int maxVoices, int droppedSounds) {
+        this.voices = voices;
+        this.maxVoices = maxVoices;
+        this.droppedSounds = droppedSounds;
+    }
+
+    /** Returns the number of voices in use, music included. */
+    public int getVoices() {
+        return voices;
+    }
+
+    public int getMaxVoices() {
+        return maxVoices;
+    }
+
+    public int getDroppedSounds() {
+        return droppedSounds;
+    }
+
+    private void allocate(int capacity) {
+        x = grow(x, capacity);
+        y = grow(y, capacity);
+        prevX = grow(prevX, capacity);
+        prevY = grow(prevY, capacity);
+        width = grow(width, capacity);
+        height = grow(height, capacity);
+
+        byte[] type = new byte[capacity];
+        short[] textureId = new short[capacity];
+        if (this.type != null) {
+            System.arraycopy(this.type, 0, type, 0, size);
+            System.arraycopy(this.textureId, 0, textureId, 0, size);
+        }
+        this.type = type;
+        this.textureId = textureId;
+    }
+
+    private float[] grow(float[] array, int capacity) {
+        float[] grown = new float[capacity];
+        if (array != null) {
+            System.arraycopy(array, 0, grown, 0, size);
+        }
+        return grown;
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.cristinarubylee.models;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.ByteArray;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Compact binary copy of the whole simulation state, for restarting a run or starting a benchmark
+ * from a given scene without building a new world.
+ *
+ * Each part of the simulation writes its state in turn and reads it back in the same order; see
+ * {@link io.github.cristinarubylee.controllers.GameplayController#save}. Values are big-endian, as
+ * in input recordings. The bytes are kept between saves, so saving into the same snapshot again
+ * does not allocate once it has held the largest state.
+ */
+public class WorldSnapshot {
+    // Header
+    private static final int MAGIC = 0x44535753; // "DSWS"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 4 + 4;
+
+    private final ByteArray bytes;
+    // Next byte to read
+    private int position;
+
+    public WorldSnapshot() {
+        bytes = new ByteArray(1024);
+    }
+
+    /**
+     * Discards the contents and starts a new snapshot.
+     */
+    public void begin() {
+        bytes.clear();
+        writeInt(MAGIC);
+        writeInt(VERSION);
+    }
+
+    /**
+     * Starts reading the state from the beginning.
+     *
+     * @throws GdxRuntimeException if the contents are not a snapshot of this version
+     */
+    public void rewind() {
+        position = 0;
+        if (bytes.size < HEADER_BYTES || readInt() != MAGIC) {
+            throw new GdxRuntimeException("Not a world snapshot");
+        }
+        int version = readInt();
+        if (version != VERSION) {
+            throw new GdxRuntimeException("Unsupported world snapshot version " + version);
+        }
+    }
+
+    /** Returns the size of the snapshot in bytes. */
+    public int size() {
+        return bytes.size;
+    }
+
+    public void writeByte(int value) {
+        bytes.add((byte) value);
+    }
+
+    public void writeInt(int value) {
+        bytes.add((byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value);
+    }
+
+    public void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    /** Writes the exact bits of a float, so the state reads back bit for bit. */
+    public void writeFloat(float value) {
+        writeInt(Float.floatToIntBits(value));
+    }
+
+    /** Reads a byte written by {@link #writeByte}, from 0 to 255. */
+    public int readByte() {
+        require(1);
+        return bytes.items[position++] & 0xFF;
+    }
+
+    public int readInt() {
+        require(4);
+        byte[] items = bytes.items;
+        int value = (items[position] & 0xFF) << 24 | (items[position + 1] & 0xFF) << 16
+            | (items[position + 2] & 0xFF) << 8 | (items[position + 3] & 0xFF);
+        position += 4;
+        return value;
+    }
+
+    public long readLong() {
+        return ((long) readInt() << 32) | (readInt() & 0xFFFFFFFFL);
+    }
+
+    public float readFloat() {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    private void require(int count) {
+        if (position + count > bytes.size) {
+            throw new GdxRuntimeException("World snapshot ends after " + position + " bytes");
+        }
+    }
+
+    /**
+     * Writes the snapshot to a file, replacing it.
+     */
+    public void write(FileHandle file) {
+        file.writeBytes(bytes.items, 0, bytes.size, false);
+    }
+
+    /**
+     * Reads a snapshot written by {@link #write}.
+     *
+     * @throws GdxRuntimeException if the file is not a snapshot of this version
+     */
+    public static WorldSnapshot read(FileHandle file) {
+        WorldSnapshot snapshot = new WorldSnapshot();
+        snapshot.bytes.addAll(file.readBytes());
+        try {
+            snapshot.rewind();
+        } catch (GdxRuntimeException e) {
+            throw new GdxRuntimeException(e.getMessage() + ": " + file);
+        }
+        return snapshot;
+    }
+}
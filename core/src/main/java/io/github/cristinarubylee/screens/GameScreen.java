@@ -8,55 +8,91 @@ import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.*;
 import com.badlogic.gdx.physics.box2d.*;
 import com.badlogic.gdx.utils.*;
 import io.github.cristinarubylee.GDXRoot;
 import io.github.cristinarubylee.controllers.*;
 import io.github.cristinarubylee.models.*;
+import io.github.cristinarubylee.util.AudioBackend;
+import io.github.cristinarubylee.util.FrameProfiler;
+import io.github.cristinarubylee.util.FrameProfiler.Phase;
 import io.github.cristinarubylee.util.ParallaxBackground;
+import io.github.cristinarubylee.util.ProjectileRenderer;
+import io.github.cristinarubylee.util.ProfilerOverlay;
+import io.github.cristinarubylee.util.RegionRegistry;
+import io.github.cristinarubylee.util.VoiceManager;
 
 public class GameScreen implements Screen {
     // Constants
-    private static final float TIME_STEP = 1/60f;
-    private static final int VELOCITY_ITERATIONS = 8;
-    private static final int POSITION_ITERATIONS = 3;
-    private static final float PLAYER_SPEED = 4f;
-    private static final float NIGHTMARE_SPAWN_INTERVAL = 2;
     private static final String PATH_PREFIX = "assets/";
+    public static final String BACKGROUND_FILE = PATH_PREFIX + "background.png";
+    public static final String SOUND_FILE = PATH_PREFIX + "drop.mp3";
+    // Optional, so it may still be streaming in when the game starts
+    public static final String MUSIC_FILE = PATH_PREFIX + "music.mp3";
+    // Milliseconds of each frame spent streaming assets during the game
+    private static final int STREAM_BUDGET = 2;
+    // Photons fire often, so their sound gets few voices, one start per frame and the lowest priority
+    private static final int PHOTON_VOICES = 4;
+    private static final float PHOTON_SOUND_LENGTH = 0.3f;
+    private static final float MUSIC_VOLUME = 0.5f;
+    // Most simulation steps run in one frame before the simulation is allowed to fall behind
+    private static final int MAX_STEPS_PER_FRAME = 5;
+    // Frames of profiling history kept, and where it is written on exit
+    private static final int PROFILE_FRAMES = 3600;
+    private static final String PROFILE_FILE = "dreamscape-profile.csv";
+    // Photons the projectile renderer makes room for up front
+    private static final int PHOTON_CAPACITY = 1024;
+    private static final String TAG = "GameScreen";
+    // Timeline of nightmare waves
+    private static final String WAVES_FILE = PATH_PREFIX + "waves.json";
 
     // Game reference
     private final GDXRoot game;
 
     // Resources
     private Texture backgroundTexture;
-    private Texture bucketTexture;
-    private Texture dropTexture;
     private Sound dropSound;
     private Music music;
+    // Music that has loaded, waiting to be started by the thread that owns the voices
+    private volatile Music pendingMusic;
+    private VoiceManager voices;
+    private VoiceManager.ManagedSound photonSound;
 
     // Physics and rendering
-    private World world;
-    private CollisionController collisionController;
     private Box2DDebugRenderer debugRenderer;
     private OrthographicCamera camera;
+    // Part of the world the camera sees; nothing outside it is drawn
+    private final Rectangle view = new Rectangle();
 
     // Game state
-    private float dropTimer;
+    private float accumulator;
     private boolean debugMode;
+    private boolean profileMode;
     private boolean pause;
     private ParallaxBackground bg;
+    private ProjectileRenderer photonRenderer;
 
     // Controllers
     private InputController control;
+    private GameplayController gameplay;
 
-    // Game objects
-    private Player player;
-    private PhotonQueue photons;
-    private Array<NightmareQueue> nightmareQueues;
-    private Array<Body> bodiesToDestroy;
-    private Array<GameObject> objects;
+    // Input the simulation is driven by: the keyboard, possibly recorded, or a replay
+    private InputSource input;
+    private InputRecording recording;
+    private InputRecording replay;
+    private boolean replayFinished;
+
+    // State the run started in, restored to retry without rebuilding the world
+    private WorldSnapshot start;
+
+    // Simulation thread, or null when the simulation ticks in render; either way frames draw a snapshot
+    private SimulationThread simulationThread;
+    private RenderSnapshot snapshot;
+
+    // Profiling
+    private FrameProfiler profiler;
+    private ProfilerOverlay profilerOverlay;
 
     public GameScreen(final GDXRoot game) {
         this.game = game;
@@ -66,13 +102,9 @@ public class GameScreen implements Screen {
 
         debugMode = false;
         pause = false;
-        bodiesToDestroy = new Array<>();
     }
 
     private void initPhysics() {
-        world = new World(new Vector2(0, 0), false);
-        collisionController = new CollisionController();
-        world.setContactListener(collisionController);
         debugRenderer = new Box2DDebugRenderer();
         camera = new OrthographicCamera(16, 10);
         camera.position.set(8, 5, 0);
@@ -80,79 +112,142 @@ public class GameScreen implements Screen {
     }
 
     private void loadResources() {
-        // Load images
-        backgroundTexture = game.assetManager.get(PATH_PREFIX + "background.png");
-        bucketTexture = game.assetManager.get(PATH_PREFIX + "bucket.png");
-        dropTexture = game.assetManager.get(PATH_PREFIX + "drop.png");
-
-        // Load audio
-        dropSound = game.assetManager.get(PATH_PREFIX + "drop.mp3");
-        music = game.assetManager.get(PATH_PREFIX + "music.mp3");
-        music.setLooping(true);
-        music.setVolume(0.5f);
+        // Load images; sprites come from the shared atlas
+        backgroundTexture = game.assetManager.get(BACKGROUND_FILE);
+
+        // Load audio; music starts whenever it has streamed in
+        dropSound = game.assetManager.get(SOUND_FILE);
+        voices = new VoiceManager(AudioBackend.GDX);
+        photonSound = voices.register(dropSound, PHOTON_VOICES, 1, 0, PHOTON_SOUND_LENGTH);
+        startMusic();
+    }
+
+    /**
+     * Hands the music over to be started once it has loaded; see {@link #updateAudio}.
+     */
+    private void startMusic() {
+        if (music != null || !game.assetManager.isLoaded(MUSIC_FILE)) {
+            return;
+        }
+        music = game.assetManager.get(MUSIC_FILE);
+        pendingMusic = music;
+    }
+
+    /**
+     * Starts music that has loaded and frees the voices of finished sounds. The voices belong to
+     * whichever thread ticks the simulation, so this runs there: after every tick on a simulation
+     * thread, or once per frame otherwise.
+     */
+    private void updateAudio(float delta) {
+        Music loaded = pendingMusic;
+        if (loaded != null) {
+            pendingMusic = null;
+            voices.playMusic(loaded, MUSIC_VOLUME);
+        }
+        voices.update(delta);
     }
 
     private void initGameObjects() {
         control = new InputController();
 
-        // Initialize player
-        player = new Player(world, 1, 5);
-        player.setTexture(new TextureRegion(bucketTexture));
-
-        // Initialize projectiles and enemies
-        photons = new PhotonQueue(world, dropTexture, dropSound);
-        nightmareQueues = new Array<>();
+        // A replay brings its own seed, so the simulation plays out exactly as recorded
+        long seed;
+        if (game.replayFile != null) {
+            replay = InputRecording.read(game.replayFile);
+            seed = replay.getSeed();
+            input = new InputPlayback(replay);
+            Gdx.app.log(TAG, "Replaying " + replay.size() + " ticks from " + game.replayFile);
+        } else {
+            seed = MathUtils.random.nextLong();
+            input = control;
+            if (game.recordFile != null) {
+                recording = new InputRecording(seed);
+                input = new InputRecorder(control, recording);
+            }
+        }
 
-        // Initialize object tracking
-        objects = new Array<>();
+        // Initialize the simulation; every object of a kind shares one atlas region
+        RegionRegistry regions = game.regions;
+        gameplay = new GameplayController(game.viewport.getWorldWidth(), game.viewport.getWorldHeight(),
+            regions.get(RegionRegistry.PLAYER), regions.get(RegionRegistry.PHOTON),
+            regions.get(RegionRegistry.NIGHTMARE), photonSound, seed);
+        gameplay.setWaves(WaveScheduler.load(Gdx.files.internal(WAVES_FILE)));
+        gameplay.setParallelRunner(game.parallel);
+        gameplay.setVoices(voices);
+        start = new WorldSnapshot();
+        gameplay.save(start);
+
+        // Photons can number in the thousands, so they skip the batch and are drawn in one call
+        photonRenderer = new ProjectileRenderer(GameObject.ObjectType.PHOTON, regions.get(RegionRegistry.PHOTON),
+            PHOTON_CAPACITY);
+
+        // Always record, so the history is there when a stutter is noticed
+        profiler = new FrameProfiler(PROFILE_FRAMES);
+        profilerOverlay = new ProfilerOverlay(profiler);
+        gameplay.setEvents(game.events);
 
         // Initialize parallax
         bg = new ParallaxBackground(10, camera, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
         bg.addLayer(3f, backgroundTexture);
 
+        // From here on, a simulation thread owns the simulation. The profiler belongs to the render
+        // thread, so only the frame and draw phases are timed then.
+        if (game.simulationThread != null) {
+            simulationThread = game.simulationThread.start(gameplay, replay, recording,
+                () -> updateAudio(GameplayController.TIME_STEP));
+        } else {
+            gameplay.setProfiler(profiler);
+            snapshot = new RenderSnapshot();
+        }
     }
 
     @Override
     public void show() {
-         music.play();
+        // Music starts from startMusic, as soon as it has streamed in
     }
 
     @Override
     public void render(float delta) {
+        profiler.begin(Phase.FRAME);
         camera.update();
-        game.batch.setProjectionMatrix(camera.combined);
+        if (simulationThread == null) {
+            updateAudio(delta);
+        }
 
+        // Keep streaming whatever was not needed to start
+        if (game.assets.getPending() > 0) {
+            game.assets.update(STREAM_BUDGET);
+            startMusic();
+        }
+
+        profiler.begin(Phase.INPUT);
         input();
-        logic(delta);
-        draw();
+        profiler.end(Phase.INPUT);
 
-        // Process physics step
-        world.step(TIME_STEP, VELOCITY_ITERATIONS, POSITION_ITERATIONS);
+        logic(delta);
 
-        // Clean up destroyed bodies after physics step
-        cleanupBodies();
+        profiler.begin(Phase.DRAW);
+        if (simulationThread != null) {
+            draw(simulationThread.getSnapshot(), simulationThread.getAlpha());
+        } else {
+            gameplay.capture(snapshot);
+            draw(snapshot, accumulator / GameplayController.TIME_STEP);
+        }
 
-        if (debugMode) {
-            debugRenderer.render(world, camera.combined);
+        // The world can only be read while nothing steps it
+        if (debugMode && (simulationThread == null || replayFinished)) {
+            debugRenderer.render(gameplay.getWorld(), camera.combined);
         }
+        profiler.end(Phase.DRAW);
+
+        profiler.end(Phase.FRAME);
+        profiler.endFrame();
     }
 
     private void input() {
         control.readInput();
-        float delta = Gdx.graphics.getDeltaTime();
-
-        if (!pause) {
-            // Player movement
-            if (control.getMovement() > 0) {
-                player.translateY(PLAYER_SPEED * delta);
-            } else if (control.getMovement() < 0) {
-                player.translateY(-PLAYER_SPEED * delta);
-            }
-
-            // Player firing
-            if (control.didPressFire()) {
-                photons.fire(player.getX() + player.getWidth(), player.getY() + player.getHeight() / 2);
-            }
+        if (simulationThread != null) {
+            simulationThread.submit(control.getMovement(), control.didPressFire());
         }
 
         // Debug toggle
@@ -160,123 +255,153 @@ public class GameScreen implements Screen {
             debugMode = !debugMode;
         }
 
+        // Profiler overlay toggle
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F)) {
+            profileMode = !profileMode;
+        }
+
         // Pause toggle
         if (Gdx.input.isKeyJustPressed(Input.Keys.P)) {
             pause = !pause;
         }
-    }
 
-    private void logic(float deltaTime) {
-        if (pause) {
-            return;
+        // Retry, unless it would break a recording or replay
+        if (Gdx.input.isKeyJustPressed(Input.Keys.R) && canRetry()) {
+            retry();
         }
-
-        float worldWidth = game.viewport.getWorldWidth();
-        float worldHeight = game.viewport.getWorldHeight();
-        float playerHeight = player.getHeight();
-
-        // Clear objects list and add the player
-        objects.clear();
-        objects.add(player);
-
-        // Clamp player position within the screen bounds
-        player.setY(MathUtils.clamp(player.getY(), playerHeight/2, worldHeight - playerHeight/2));
-        player.setX(MathUtils.clamp(player.getX(), playerHeight/2, worldWidth - playerHeight/2));
-
-        // Update game objects
-        updateNightmares(deltaTime);
-        updatePhotons(deltaTime);
-
-        // Handle spawning new nightmares
-        spawnNightmares(deltaTime, worldWidth, worldHeight);
-
-        bg.translateX(deltaTime);
     }
 
-    private void spawnNightmares(float deltaTime, float worldWidth, float worldHeight) {
-        // Spawn nightmares at intervals
-        dropTimer -= deltaTime;
-        if (dropTimer <= 0f) {
-            dropTimer = NIGHTMARE_SPAWN_INTERVAL;
+    private boolean canRetry() {
+        return recording == null && replay == null;
+    }
 
-            float centerY = MathUtils.random(2, worldHeight - 2);
-            nightmareQueues.add(new NightmareQueue(world, worldWidth + 1, centerY, NightmareQueue.NightmareType.CIRCLE));
+    /**
+     * Puts the run back where it started, reusing the world and every body in it.
+     */
+    private void retry() {
+        if (simulationThread != null) {
+            simulationThread.restore(start);
+        } else {
+            gameplay.restore(start);
+            accumulator = 0;
         }
+        pause = false;
     }
 
-    private void updatePhotons(float deltaTime) {
-        for (Photon photon : photons.getPhotons()) {
-            if (photon.isDestroyed()) {
-                markForDestruction(photon.body());
-            } else {
-                objects.add(photon);
+    private void logic(float deltaTime) {
+        if (simulationThread != null) {
+            simulationThread.setPaused(pause);
+            if (!pause && !replayFinished) {
+                bg.translateX(deltaTime);
             }
+            if (simulationThread.isFinished() && !replayFinished) {
+                finishReplay();
+            }
+            return;
+        }
+        if (pause || replayFinished) {
+            accumulator = 0;
+            return;
         }
-        photons.removeDestroyed();
-        photons.update(deltaTime);
-    }
 
-    private void updateNightmares(float deltaTime) {
-        for (NightmareQueue nightmareQueue : nightmareQueues) {
-            for (Nightmare nightmare : nightmareQueue.getNightmares()) {
-                if (nightmare == null){
-                    continue;
-                }
-
-                if (nightmare.isDestroyed()) {
-                    markForDestruction(nightmare.body());
-                } else {
-                    objects.add(nightmare);
-                }
+        // Run as many fixed steps as the elapsed time covers, so gameplay speed does not
+        // depend on the frame rate; the remainder carries over to the next frame
+        accumulator += deltaTime;
+        int steps = 0;
+        while (accumulator >= GameplayController.TIME_STEP && steps < MAX_STEPS_PER_FRAME) {
+            if (!input.nextTick()) {
+                finishReplay();
+                return;
             }
-            nightmareQueue.removeDestroyed();
-            nightmareQueue.update(deltaTime);
+            gameplay.tick(input.getMovement(), input.didPressFire());
+            accumulator -= GameplayController.TIME_STEP;
+            steps++;
         }
-    }
 
-    private void markForDestruction(Body body) {
-        if (body != null && !bodiesToDestroy.contains(body, true)) {
-            bodiesToDestroy.add(body);
+        // After a long hitch, drop the time we could not catch up on instead of spiralling
+        if (accumulator >= GameplayController.TIME_STEP) {
+            accumulator = 0;
         }
+
+        bg.translateX(deltaTime);
     }
 
-    private void cleanupBodies() {
-        // Remove bodies after physics step to avoid concurrent modification
-        for (Body body : bodiesToDestroy) {
-            if (body != null) {
-                GameObject obj = (GameObject)(body.getUserData());
-                obj.setBody(null);
-                world.destroyBody(body);
-            }
+    /**
+     * Reports whether the replay ended in the recorded state, then quits.
+     */
+    private void finishReplay() {
+        replayFinished = true;
+        accumulator = 0;
+        int hash = gameplay.getStateHash();
+        if (replay.getStateHash() == 0) {
+            Gdx.app.log(TAG, "Replay finished, state hash " + hash);
+        } else if (replay.getStateHash() == hash) {
+            Gdx.app.log(TAG, "Replay finished in the recorded state");
+        } else {
+            Gdx.app.error(TAG, "Replay diverged from the recording: state hash " + hash
+                + ", recorded " + replay.getStateHash());
         }
-        bodiesToDestroy.clear();
+        Gdx.app.exit();
     }
 
-    private void draw() {
+    /**
+     * @param alpha how far the render time is into the next simulation step, from 0 to 1
+     */
+    private void draw(RenderSnapshot snapshot, float alpha) {
         ScreenUtils.clear(Color.BLACK);
         game.viewport.apply();
 
-        bg.draw(game.batch);
-
         game.batch.setProjectionMatrix(game.viewport.getCamera().combined);
         game.batch.begin();
 
+        // The background shares the batch, so the whole frame is drawn in one pass
+        bg.draw(game.batch);
+
         float worldWidth = game.viewport.getWorldWidth();
         float worldHeight = game.viewport.getWorldHeight();
 
         // Draw background
 //        game.batch.draw(backgroundTexture, 0, 0, worldWidth, worldHeight);
 
-        // Draw UI elements
-        game.font.draw(game.batch, "Player Health: " + player.getCurrHealth(), 0, worldHeight);
-        game.font.draw(game.batch, "Total Objects: " + objects.size, 0, worldHeight - 1);
+        // Draw the other game objects in one pass over the snapshot. They all come from the
+        // atlas, so this is one batch. Photons are drawn by their own renderer in between.
+        // The camera does not rotate, so its frustum is a box and the near plane gives the view
+        Vector3[] corners = game.viewport.getCamera().frustum.planePoints;
+        view.set(corners[0].x, corners[0].y, corners[2].x - corners[0].x, corners[2].y - corners[0].y);
+        int drawn = snapshot.draw(game.batch, alpha, GameObject.ObjectType.PHOTON, view);
+        game.batch.end();
+        photonRenderer.draw(snapshot, alpha, game.viewport.getCamera().combined, view);
+        drawn += photonRenderer.getDrawn();
+        game.batch.begin();
 
-        // Draw all game objects
-        for (GameObject object : objects) {
-            object.draw(game.batch);
+        // Draw UI elements
+        game.font.draw(game.batch, "Player Health: " + snapshot.getPlayerHealth(), 0, worldHeight);
+        game.font.draw(game.batch, "Total Objects: " + snapshot.getLiveBodyCount(), 0, worldHeight - 1);
+        game.font.draw(game.batch, "Formations: " + snapshot.getFormationCount(), 0, worldHeight - 2);
+        if (snapshot.getPlayerHealth() == 0 && canRetry()) {
+            game.font.draw(game.batch, "Press R to retry", worldWidth / 2 - 2, worldHeight / 2);
+        }
+        if (debugMode) {
+            drawPoolStats("Photon pool", snapshot.getPhotonPool(), worldHeight - 3);
+            drawPoolStats("Nightmare pool", snapshot.getNightmarePool(), worldHeight - 4);
+            game.font.draw(game.batch, "Voices: " + snapshot.getVoices() + "/" + snapshot.getMaxVoices()
+                + ", " + snapshot.getDroppedSounds() + " dropped", 0, worldHeight - 5);
+            game.font.draw(game.batch, "Drawn: " + drawn + " of " + snapshot.size(), 0, worldHeight - 6);
+        }
+        if (profileMode) {
+            profilerOverlay.drawTable(game.batch, game.font, worldWidth / 2, worldHeight);
         }
 
         game.batch.end();
+
+        if (profileMode) {
+            profilerOverlay.drawGraph(game.viewport.getCamera().combined, worldWidth / 2, 0, worldWidth / 2, 2);
+        }
+    }
+
+    private void drawPoolStats(String label, RenderSnapshot.PoolStats pool, float y) {
+        game.font.draw(game.batch, label + ": " + pool.getLive() + " live, " + pool.getFree() + " free, "
+            + pool.getHighWater() + " peak, " + MathUtils.round(pool.getHitRate() * 100) + "% hits", 0, y);
     }
 
     @Override
@@ -301,13 +426,34 @@ public class GameScreen implements Screen {
 
     @Override
     public void dispose() {
+        // Stop the simulation before reading its final state
+        if (simulationThread != null) {
+            simulationThread.dispose();
+        }
+
+        // Save the recording with the final state, so replays can check they end in it
+        if (recording != null) {
+            recording.setStateHash(gameplay.getStateHash());
+            recording.write(game.recordFile);
+            Gdx.app.log(TAG, "Recorded " + recording.size() + " ticks to " + game.recordFile);
+        }
+
         // Dispose of all resources to prevent memory leaks
         backgroundTexture.dispose();
+        voices.stopMusic();
         dropSound.dispose();
-        music.dispose();
-        dropTexture.dispose();
-        bucketTexture.dispose();
-        world.dispose();
+        if (music != null) {
+            music.dispose();
+        }
+        gameplay.dispose();
         debugRenderer.dispose();
+        profilerOverlay.dispose();
+        photonRenderer.dispose();
+
+        // Keep the profiling history, so a reported stutter can be traced to a phase
+        if (Gdx.files.isExternalStorageAvailable()) {
+            profiler.writeCsv(Gdx.files.external(PROFILE_FILE));
+            Gdx.app.log(TAG, "Wrote frame profile to " + Gdx.files.getExternalStoragePath() + PROFILE_FILE);
+        }
     }
 }
@@ -10,8 +10,14 @@ import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.ScreenUtils;
 import io.github.cristinarubylee.GDXRoot;
+import io.github.cristinarubylee.util.AssetStreamer;
+import io.github.cristinarubylee.util.AssetStreamer.Priority;
+import io.github.cristinarubylee.util.RegionRegistry;
 
 public class LoadingScreen implements Screen {
+    // Milliseconds of each frame spent loading, leaving the rest for drawing the screen
+    private static final int LOAD_BUDGET = 12;
+
     // Game reference
     private final GDXRoot game;
 
@@ -38,6 +44,7 @@ public class LoadingScreen implements Screen {
         game.assetManager.load("assets/loading/progress.png", Texture.class);
         game.assetManager.load("assets/loading/splash.png", Texture.class);
 
+        // The screen cannot be drawn without these few small textures, so wait for them
         game.assetManager.finishLoading();
 
         splash = game.assetManager.get("assets/loading/splash.png");
@@ -52,11 +59,12 @@ public class LoadingScreen implements Screen {
         foreright = new TextureRegion(progress, 296, 45, 24, 45);
         foreground = new TextureRegion(progress, 24, 45, 272, 45);
 
-        game.assetManager.load("assets/background.png", Texture.class);
-        game.assetManager.load("assets/bucket.png", Texture.class);
-        game.assetManager.load("assets/drop.png", Texture.class);
-        game.assetManager.load("assets/music.mp3", Music.class);
-        game.assetManager.load("assets/drop.mp3", Sound.class);
+        // Play can start once the required assets are in; the rest keeps streaming during the game
+        AssetStreamer assets = game.assets;
+        RegionRegistry.load(assets);
+        assets.load(GameScreen.BACKGROUND_FILE, Texture.class, Priority.REQUIRED);
+        assets.load(GameScreen.SOUND_FILE, Sound.class, Priority.REQUIRED);
+        assets.load(GameScreen.MUSIC_FILE, Music.class, Priority.OPTIONAL);
 
     }
 
@@ -67,10 +75,10 @@ public class LoadingScreen implements Screen {
 
     @Override
     public void render(float delta) {
-        game.assetManager.update();
+        game.assets.update(LOAD_BUDGET);
         draw();
 
-        if (game.assetManager.getProgress() >= 1.0f && Gdx.input.justTouched()) {
+        if (game.assets.isReady(Priority.REQUIRED) && Gdx.input.justTouched()) {
             // Convert screen coordinates to world coordinates
             Vector2 touch = game.viewport.unproject(new Vector2(Gdx.input.getX(), Gdx.input.getY()));
 
@@ -82,6 +90,9 @@ public class LoadingScreen implements Screen {
             if (touch.x >= buttonX && touch.x <= buttonX + buttonWidth &&
                 touch.y >= buttonY && touch.y <= buttonY + buttonHeight) {
 
+                if (game.regions == null) {
+                    game.regions = new RegionRegistry(game.assetManager);
+                }
                 game.setScreen(new GameScreen(game));
                 this.dispose();
             }
@@ -98,7 +109,7 @@ public class LoadingScreen implements Screen {
 
         game.batch.draw(splash, 0,0, worldWidth, worldHeight);
 
-        if (game.assetManager.getProgress() < 1.0f) {
+        if (!game.assets.isReady(Priority.REQUIRED)) {
             drawProgress();
         } else {
             game.batch.draw(playButton, worldWidth/2 - 2, worldHeight * 0.1f, 4, 4);
@@ -117,7 +128,7 @@ public class LoadingScreen implements Screen {
         float centerX = worldWidth / 2f;
         float centerY = worldHeight * 0.2f;
 
-        float loaded = game.assetManager.getProgress();
+        float loaded = game.assets.getProgress(Priority.REQUIRED);
 
         float barX = centerX - barWidth / 2f;
         float progressX = barX + capWidth;
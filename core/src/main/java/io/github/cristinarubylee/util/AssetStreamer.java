@@ -0,0 +1,146 @@
+package io.github.cristinarubylee.util;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Queue;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * Streams assets into an {@link AssetManager} by priority, spending at most a given number of
+ * milliseconds per frame.
+ *
+ * Requests wait in one queue per {@link Priority} and are handed to the manager in batches of up to
+ * {@value #BATCH_SIZE} assets of the same priority, so the manager can decode several at once on
+ * its executor thread while the render thread uploads the ones already decoded. A batch only starts
+ * once the one before it has loaded, and takes from the highest priority waiting, so a required
+ * asset requested while prefetching only waits for the small batch already in flight. The time
+ * spent here is mostly the GL upload and bookkeeping on the render thread. Call {@link #update}
+ * every frame, during gameplay too.
+ */
+public class AssetStreamer {
+
+    public enum Priority {
+        /** Needed before the game can be played. */
+        REQUIRED,
+        /** Used by the game, which copes until it arrives. */
+        OPTIONAL,
+        /** Not used yet; loaded ahead of time when nothing else is waiting. */
+        PREFETCH
+    }
+
+    private static final Priority[] PRIORITIES = Priority.values();
+    // Most assets handed to the manager at once
+    private static final int BATCH_SIZE = 8;
+
+    private final AssetManager assetManager;
+    private final Array<Queue<AssetDescriptor<?>>> queues;
+    // Requested and loaded assets, per priority
+    private final int[] requested;
+    private final int[] loaded;
+
+    // Assets handed to the manager and not loaded yet, all of the same priority
+    private final Array<AssetDescriptor<?>> inFlight;
+    private Priority currentPriority;
+
+    public AssetStreamer(AssetManager assetManager) {
+        this.assetManager = assetManager;
+        queues = new Array<>(PRIORITIES.length);
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            queues.add(new Queue<>());
+        }
+        inFlight = new Array<>(BATCH_SIZE);
+        requested = new int[PRIORITIES.length];
+        loaded = new int[PRIORITIES.length];
+    }
+
+    /**
+     * Queues an asset. Assets of the same priority load in the order they were requested.
+     */
+    public <T> void load(String fileName, Class<T> type, Priority priority) {
+        queues.get(priority.ordinal()).addLast(new AssetDescriptor<>(fileName, type));
+        requested[priority.ordinal()]++;
+    }
+
+    /**
+     * Loads for up to the given time.
+     *
+     * @param budgetMillis milliseconds this frame can spare; on the web, one step is taken regardless
+     * @return whether every requested asset has been loaded
+     */
+    public boolean update(int budgetMillis) {
+        long end = TimeUtils.millis() + budgetMillis;
+        while (true) {
+            if (inFlight.size == 0 && !next()) {
+                return true;
+            }
+            int remaining = (int) Math.max(0, end - TimeUtils.millis());
+            assetManager.update(remaining);
+            for (int i = inFlight.size - 1; i >= 0; i--) {
+                AssetDescriptor<?> asset = inFlight.get(i);
+                if (assetManager.isLoaded(asset.fileName, asset.type)) {
+                    loaded[currentPriority.ordinal()]++;
+                    inFlight.removeIndex(i);
+                }
+            }
+            if (TimeUtils.millis() >= end) {
+                return inFlight.size == 0 && getPending() == 0;
+            }
+        }
+    }
+
+    /**
+     * Hands the next batch of the most important waiting assets to the manager.
+     *
+     * @return false if nothing is waiting
+     */
+    private boolean next() {
+        for (Priority priority : PRIORITIES) {
+            Queue<AssetDescriptor<?>> queue = queues.get(priority.ordinal());
+            if (queue.size > 0) {
+                currentPriority = priority;
+                while (queue.size > 0 && inFlight.size < BATCH_SIZE) {
+                    AssetDescriptor<?> asset = queue.removeFirst();
+                    inFlight.add(asset);
+                    assetManager.load(asset);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether every asset of the given priority, and of those above it, has been loaded.
+     */
+    public boolean isReady(Priority priority) {
+        for (int i = 0; i <= priority.ordinal(); i++) {
+            if (loaded[i] < requested[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns how much of the given priority and those above it has been loaded, from 0 to 1.
+     */
+    public float getProgress(Priority priority) {
+        int total = 0;
+        int done = 0;
+        for (int i = 0; i <= priority.ordinal(); i++) {
+            total += requested[i];
+            done += loaded[i];
+        }
+        return total == 0 ? 1 : (float) done / total;
+    }
+
+    /** Returns the number of assets that have not been loaded yet. */
+    public int getPending() {
+        int pending = 0;
+        for (int i = 0; i < PRIORITIES.length; i++) {
+            pending += requested[i] - loaded[i];
+        }
+        return pending;
+    }
+}
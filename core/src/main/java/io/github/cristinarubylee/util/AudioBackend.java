@@ -0,0 +1,53 @@
+package io.github.cristinarubylee.util;
+
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+
+/**
+ * Where a {@link VoiceManager} actually starts and stops sounds.
+ *
+ * {@link #GDX} plays through libGDX; {@link StubAudioBackend} only counts, so the voice manager
+ * can run without an audio device.
+ */
+public interface AudioBackend {
+
+    /** Plays through the sounds and music themselves. */
+    AudioBackend GDX = new AudioBackend() {
+        @Override
+        public long play(Sound sound, float volume, float pitch, float pan, boolean loop) {
+            return loop ? sound.loop(volume, pitch, pan) : sound.play(volume, pitch, pan);
+        }
+
+        @Override
+        public void stop(Sound sound, long id) {
+            sound.stop(id);
+        }
+
+        @Override
+        public void playMusic(Music music, float volume) {
+            music.setVolume(volume);
+            music.setLooping(true);
+            music.play();
+        }
+
+        @Override
+        public void stopMusic(Music music) {
+            music.stop();
+        }
+    };
+
+    /**
+     * Starts a sound.
+     *
+     * @return the id of the new instance, or -1 if it could not be played
+     */
+    long play(Sound sound, float volume, float pitch, float pan, boolean loop);
+
+    /** Stops one instance of a sound. */
+    void stop(Sound sound, long id);
+
+    /** Starts music, looping. */
+    void playMusic(Music music, float volume);
+
+    void stopMusic(Music music);
+}
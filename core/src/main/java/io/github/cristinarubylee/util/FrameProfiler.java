@@ -0,0 +1,174 @@
+package io.github.cristinarubylee.util;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.TimeUtils;
+
+/**
+ * Records how long each phase of a frame takes, over the last few thousand frames.
+ *
+ * Phases are timed with {@link #begin} and {@link #end}; a phase that runs several times in a
+ * frame, like the simulation phases when the game catches up, adds up. {@link #endFrame} moves
+ * the totals into ring buffers allocated up front, so recording never allocates.
+ */
+public class FrameProfiler {
+
+    public enum Phase {
+        FRAME,
+        INPUT,
+        LOGIC,
+        UPDATE_NIGHTMARES,
+        UPDATE_PHOTONS,
+        SPAWN_NIGHTMARES,
+        STEP,
+        COLLISIONS,
+        CLEANUP,
+        DRAW
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    /** Records nothing; used where no profiler has been set. */
+    public static final FrameProfiler DISABLED = new FrameProfiler(1, false);
+
+    private final boolean enabled;
+    private final int capacity;
+
+    // Nanoseconds per phase, for the frame in progress and for past frames
+    private final long[] started;
+    private final long[] current;
+    private final long[][] history;
+    private int head;
+    private int frames;
+
+    // Scratch space for percentiles
+    private final long[] sorted;
+
+    /**
+     * @param capacity number of frames kept
+     */
+    public FrameProfiler(int capacity) {
+        this(capacity, true);
+    }
+
+    private FrameProfiler(int capacity, boolean enabled) {
+        this.capacity = capacity;
+        this.enabled = enabled;
+        started = new long[PHASES.length];
+        current = new long[PHASES.length];
+        history = new long[PHASES.length][capacity];
+        sorted = new long[capacity];
+    }
+
+    public void begin(Phase phase) {
+        if (enabled) {
+            started[phase.ordinal()] = TimeUtils.nanoTime();
+        }
+    }
+
+    public void end(Phase phase) {
+        if (enabled) {
+            int index = phase.ordinal();
+            current[index] += TimeUtils.nanoTime() - started[index];
+        }
+    }
+
+    /**
+     * Stores the times of the frame in progress and starts a new one.
+     */
+    public void endFrame() {
+        if (!enabled) {
+            return;
+        }
+        for (int i = 0; i < PHASES.length; i++) {
+            history[i][head] = current[i];
+            current[i] = 0;
+        }
+        head = (head + 1) % capacity;
+        frames = Math.min(frames + 1, capacity);
+    }
+
+    /** Returns the number of frames recorded, up to the capacity. */
+    public int getFrameCount() {
+        return frames;
+    }
+
+    /**
+     * Returns the time spent in a phase, in nanoseconds.
+     *
+     * @param age 0 for the most recent frame, 1 for the one before it, and so on
+     */
+    public long get(Phase phase, int age) {
+        return history[phase.ordinal()][(head - 1 - age + capacity) % capacity];
+    }
+
+    /**
+     * Returns the given percentile of the time spent in a phase over the recorded frames, in nanoseconds.
+     *
+     * @param fraction from 0 to 1, e.g. 0.99 for p99
+     */
+    public long percentile(Phase phase, float fraction) {
+        if (frames == 0) {
+            return 0;
+        }
+        long[] times = history[phase.ordinal()];
+        for (int i = 0; i < frames; i++) {
+            sorted[i] = times[(head - 1 - i + capacity) % capacity];
+        }
+        int k = Math.min(frames - 1, Math.max(0, (int) Math.ceil(fraction * frames) - 1));
+        return select(sorted, frames, k);
+    }
+
+    /**
+     * Writes the recorded frames, oldest first, as CSV with one column of nanoseconds per phase.
+     */
+    public void writeCsv(FileHandle file) {
+        StringBuilder csv = new StringBuilder();
+        csv.append("frame");
+        for (Phase phase : PHASES) {
+            csv.append(',').append(phase.name().toLowerCase()).append("_ns");
+        }
+        csv.append('\n');
+
+        for (int frame = 0; frame < frames; frame++) {
+            csv.append(frame);
+            for (Phase phase : PHASES) {
+                csv.append(',').append(get(phase, frames - 1 - frame));
+            }
+            csv.append('\n');
+        }
+        file.writeString(csv.toString(), false);
+    }
+
+    /**
+     * Returns the k-th smallest of the first n values, reordering them. Quickselect, so percentiles
+     * need neither a full sort nor a temporary array.
+     */
+    private static long select(long[] values, int n, int k) {
+        int low = 0;
+        int high = n - 1;
+        while (low < high) {
+            long pivot = values[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (values[i] < pivot) i++;
+                while (values[j] > pivot) j--;
+                if (i <= j) {
+                    long swap = values[i];
+                    values[i] = values[j];
+                    values[j] = swap;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                high = j;
+            } else if (k >= i) {
+                low = i;
+            } else {
+                break;
+            }
+        }
+        return values[k];
+    }
+}
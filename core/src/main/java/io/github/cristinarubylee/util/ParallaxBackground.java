@@ -1,46 +1,58 @@
 package io.github.cristinarubylee.util;
 
 import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Batch;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.utils.viewport.Viewport;
-
-import java.util.ArrayList;
-
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Horizontally scrolling background made of layers that move at different speeds.
+ *
+ * Layers are drawn into the caller's batch, which must already have begun with a projection
+ * matching the camera. Scrolling only moves the texture coordinates of a region each layer
+ * keeps, so drawing any number of layers does not allocate.
+ */
 public class ParallaxBackground {
 
-    private class Layer {
-        float factor;
-        Texture texture;
+    private static class Layer {
+        final float factor;
+        final Texture texture;
+        final TextureRegion region;
+        // Vertical offset in world units, and tint as a packed color
+        final float offsetY;
+        final float tint;
 
-        public Layer(float factor, Texture texture){
+        public Layer(float factor, Texture texture, float offsetY, Color tint){
             this.factor = factor;
             this.texture = texture;
+            this.offsetY = offsetY;
+            this.tint = tint.toFloatBits();
             this.texture.setWrap(
                 Texture.TextureWrap.Repeat, Texture.TextureWrap.ClampToEdge
             );
+            region = new TextureRegion(texture);
         }
 
         private void draw(Batch batch, Vector2 position, Camera camera, int width, int height){
-            int xOffset = (int) (position.x * factor) % texture.getWidth();
-            int yOffset = (int) (position.y * factor) % texture.getHeight();
-
-            TextureRegion region = new TextureRegion(texture);
-            region.setRegionX(xOffset);
-            region.setRegionY(yOffset);
-            region.setRegionWidth(width);
-            region.setRegionHeight(height);
-
-            batch.draw(region, 0, 0, camera.viewportWidth, camera.viewportHeight);
+            // Show a screen-sized window of the texture, one texel per pixel, scrolled by the layer's factor.
+            // The texture repeats horizontally, so only the fractional part of u matters.
+            float u = (position.x * factor / texture.getWidth()) % 1f;
+            float v = position.y * factor / texture.getHeight();
+            region.setRegion(u, v, u + (float) width / texture.getWidth(), v + (float) height / texture.getHeight());
+
+            float x = camera.position.x - camera.viewportWidth / 2;
+            float y = camera.position.y - camera.viewportHeight / 2 + offsetY;
+            batch.setPackedColor(tint);
+            batch.draw(region, x, y, camera.viewportWidth, camera.viewportHeight);
         }
 
 
     }
 
-    private ArrayList<Layer> layers = new ArrayList<>();
+    private final Array<Layer> layers = new Array<>();
     private int speed;
     private Camera camera;
     private int width;
@@ -58,20 +70,33 @@ public class ParallaxBackground {
     Adds layers to background (initial layers are drawn further back)
      */
     public void addLayer(float factor, Texture texture){
-        layers.add(new Layer(factor, texture));
+        addLayer(factor, texture, 0, Color.WHITE);
+    }
+
+    /**
+     * Adds a layer in front of the existing ones.
+     *
+     * @param offsetY how far up the layer is drawn, in world units
+     * @param tint    color the layer is multiplied by
+     */
+    public void addLayer(float factor, Texture texture, float offsetY, Color tint){
+        layers.add(new Layer(factor, texture, offsetY, tint));
     }
 
     public void translateX(float delta){
         position.x = position.x < 0 ? 0 : position.x + speed * delta;
     }
 
+    /**
+     * Draws every layer, back to front, into a batch that has already begun.
+     * The batch color is restored afterwards.
+     */
     public void draw(Batch batch){
-        batch.setProjectionMatrix(camera.combined);
-        batch.begin();
-        for (Layer layer : layers) {
-            layer.draw(batch, position, camera, width, height);
+        float color = batch.getPackedColor();
+        for (int i = 0; i < layers.size; i++) {
+            layers.get(i).draw(batch, position, camera, width, height);
         }
-        batch.end();
+        batch.setPackedColor(color);
     }
 
 }
@@ -0,0 +1,31 @@
+package io.github.cristinarubylee.util;
+
+/**
+ * Runs a loop in chunks, in parallel on platforms that have threads.
+ *
+ * Every index is run exactly once and {@link #run} returns when all of them have, so the caller
+ * can use the results straight away. Chunks may run at the same time, so they must not write
+ * anything another chunk reads.
+ */
+public interface ParallelRunner {
+
+    /** Runs the whole loop as one chunk on the calling thread. */
+    ParallelRunner SERIAL = (count, grain, task) -> task.run(0, count);
+
+    /**
+     * A chunk of a loop.
+     */
+    interface RangeTask {
+        /**
+         * Runs the indices from {@code from}, inclusive, to {@code to}, exclusive.
+         */
+        void run(int from, int to);
+    }
+
+    /**
+     * Runs indices 0 to {@code count} - 1.
+     *
+     * @param grain smallest number of indices worth handing to another thread
+     */
+    void run(int count, int grain, RangeTask task);
+}
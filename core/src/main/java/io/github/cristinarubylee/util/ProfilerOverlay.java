@@ -0,0 +1,93 @@
+package io.github.cristinarubylee.util;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Shows what a {@link FrameProfiler} recorded: a graph of recent frame times and
+ * the p50 and p99 of every phase.
+ */
+public class ProfilerOverlay implements Disposable {
+    // Frames shown in the graph, and the frame time at the top of it
+    private static final int GRAPH_FRAMES = 240;
+    private static final long GRAPH_MAX = 2 * 1_000_000_000L / 60;
+    // Frame time above which a bar is drawn as a stutter
+    private static final long FRAME_BUDGET = 1_000_000_000L / 60;
+    // Percentiles are refreshed a few times a second, not every frame
+    private static final int REFRESH_FRAMES = 30;
+
+    private static final FrameProfiler.Phase[] PHASES = FrameProfiler.Phase.values();
+
+    private final FrameProfiler profiler;
+    private final ShapeRenderer shapes;
+    private final StringBuilder text;
+    private final String[] labels;
+    private final long[] p50;
+    private final long[] p99;
+    private int sinceRefresh = REFRESH_FRAMES;
+
+    public ProfilerOverlay(FrameProfiler profiler) {
+        this.profiler = profiler;
+        shapes = new ShapeRenderer();
+        text = new StringBuilder();
+        labels = new String[PHASES.length];
+        for (int i = 0; i < PHASES.length; i++) {
+            labels[i] = PHASES[i].name().toLowerCase();
+        }
+        p50 = new long[PHASES.length];
+        p99 = new long[PHASES.length];
+    }
+
+    /**
+     * Draws the per-phase table into a batch that has already begun, top-left corner at the given position.
+     */
+    public void drawTable(Batch batch, BitmapFont font, float x, float y) {
+        if (++sinceRefresh >= REFRESH_FRAMES) {
+            sinceRefresh = 0;
+            for (int i = 0; i < PHASES.length; i++) {
+                p50[i] = profiler.percentile(PHASES[i], 0.5f);
+                p99[i] = profiler.percentile(PHASES[i], 0.99f);
+            }
+        }
+
+        float lineHeight = font.getLineHeight();
+        for (int i = 0; i < PHASES.length; i++) {
+            text.setLength(0);
+            text.append(labels[i])
+                .append(": p50 ").append(p50[i] / 1000)
+                .append(" us, p99 ").append(p99[i] / 1000).append(" us");
+            font.draw(batch, text, x, y - i * lineHeight);
+        }
+    }
+
+    /**
+     * Draws recent frame times as bars, newest on the right. Call outside of any batch.
+     */
+    public void drawGraph(Matrix4 projection, float x, float y, float width, float height) {
+        int frames = Math.min(GRAPH_FRAMES, profiler.getFrameCount());
+        float barWidth = width / GRAPH_FRAMES;
+
+        shapes.setProjectionMatrix(projection);
+        shapes.begin(ShapeRenderer.ShapeType.Filled);
+        for (int age = 0; age < frames; age++) {
+            long time = profiler.get(FrameProfiler.Phase.FRAME, age);
+            shapes.setColor(time > FRAME_BUDGET ? Color.RED : Color.GREEN);
+            float barHeight = Math.min(1f, (float) time / GRAPH_MAX) * height;
+            shapes.rect(x + width - (age + 1) * barWidth, y, barWidth, barHeight);
+        }
+
+        // Mark the frame budget
+        shapes.setColor(Color.WHITE);
+        shapes.rect(x, y + (float) FRAME_BUDGET / GRAPH_MAX * height, width, height / 100);
+        shapes.end();
+    }
+
+    @Override
+    public void dispose() {
+        shapes.dispose();
+    }
+}
@@ -0,0 +1,115 @@
+package io.github.cristinarubylee.util;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import io.github.cristinarubylee.models.GameObject;
+import io.github.cristinarubylee.models.RenderSnapshot;
+
+/**
+ * Draws every live object of one type, e.g. all photons, with a single draw call.
+ *
+ * The quads are packed by {@link ProjectileVertices} straight from a render snapshot and streamed
+ * into one dynamic vertex buffer each frame. Since the quads are unindexed, there is no 16-bit
+ * index limit and tens of thousands of them still take one call. The buffer is recreated, twice
+ * the size, when it runs out of room.
+ */
+public class ProjectileRenderer implements Disposable {
+    private static final String VERTEX_SHADER =
+        "attribute vec4 " + ShaderProgram.POSITION_ATTRIBUTE + ";\n"
+            + "attribute vec2 " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n"
+            + "uniform mat4 u_projTrans;\n"
+            + "varying vec2 v_texCoords;\n"
+            + "void main() {\n"
+            + "    v_texCoords = " + ShaderProgram.TEXCOORD_ATTRIBUTE + "0;\n"
+            + "    gl_Position = u_projTrans * " + ShaderProgram.POSITION_ATTRIBUTE + ";\n"
+            + "}\n";
+    private static final String FRAGMENT_SHADER =
+        "#ifdef GL_ES\n"
+            + "precision mediump float;\n"
+            + "#endif\n"
+            + "varying vec2 v_texCoords;\n"
+            + "uniform sampler2D u_texture;\n"
+            + "void main() {\n"
+            + "    gl_FragColor = texture2D(u_texture, v_texCoords);\n"
+            + "}\n";
+
+    private final GameObject.ObjectType type;
+    private final TextureRegion region;
+    private final ProjectileVertices vertices;
+    private final ShaderProgram shader;
+    private Mesh mesh;
+
+    /**
+     * @param type     type of the objects drawn
+     * @param region   sprite every object is drawn with
+     * @param capacity number of objects to make room for up front
+     */
+    public ProjectileRenderer(GameObject.ObjectType type, TextureRegion region, int capacity) {
+        this.type = type;
+        this.region = region;
+        vertices = new ProjectileVertices(capacity);
+        shader = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        if (!shader.isCompiled()) {
+            throw new GdxRuntimeException("Error compiling projectile shader: " + shader.getLog());
+        }
+        mesh = createMesh(vertices.getCapacity());
+    }
+
+    private static Mesh createMesh(int quads) {
+        return new Mesh(false, quads * ProjectileVertices.VERTICES_PER_QUAD, 0,
+            new VertexAttribute(VertexAttributes.Usage.Position, 2, ShaderProgram.POSITION_ATTRIBUTE),
+            new VertexAttribute(VertexAttributes.Usage.TextureCoordinates, 2, ShaderProgram.TEXCOORD_ATTRIBUTE + "0"));
+    }
+
+    /**
+     * Draws the objects of a snapshot that overlap the view between their previous and current
+     * position. Call outside of any batch.
+     *
+     * @param alpha how far the render time is into the next simulation step, from 0 to 1
+     * @param view  area seen by the camera, or null to draw every object
+     */
+    public void draw(RenderSnapshot snapshot, float alpha, Matrix4 projection, Rectangle view) {
+        vertices.fill(snapshot, type, region, alpha, view);
+        render(projection);
+    }
+
+    private void render(Matrix4 projection) {
+        if (vertices.getQuadCount() == 0) {
+            return;
+        }
+        if (mesh.getMaxVertices() < vertices.getVertexCount()) {
+            mesh.dispose();
+            mesh = createMesh(vertices.getCapacity());
+        }
+        mesh.setVertices(vertices.getVertices(), 0, vertices.getFloatCount());
+
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        region.getTexture().bind(0);
+        shader.bind();
+        shader.setUniformMatrix("u_projTrans", projection);
+        shader.setUniformi("u_texture", 0);
+        mesh.render(shader, GL20.GL_TRIANGLES, 0, vertices.getVertexCount());
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+    }
+
+    /** Returns the number of objects drawn by the last {@link #draw}. */
+    public int getDrawn() {
+        return vertices.getQuadCount();
+    }
+
+    @Override
+    public void dispose() {
+        mesh.dispose();
+        shader.dispose();
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.cristinarubylee.util;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Rectangle;
+import io.github.cristinarubylee.models.GameObject;
+import io.github.cristinarubylee.models.RenderSnapshot;
+
+/**
+ * Packs one textured quad per live object of a type into a float array, ready to be copied into
+ * a vertex buffer.
+ *
+ * Quads are two triangles of their own, six vertices of position and texture coordinates each, so
+ * they can be drawn with a single unindexed call no matter how many there are. Filling only reads
+ * the arrays of a {@link RenderSnapshot} and needs no GL context, so it also runs headless.
+ */
+public class ProjectileVertices {
+    public static final int FLOATS_PER_VERTEX = 4;
+    public static final int VERTICES_PER_QUAD = 6;
+    private static final int FLOATS_PER_QUAD = FLOATS_PER_VERTEX * VERTICES_PER_QUAD;
+
+    private float[] vertices;
+    private int quads;
+
+    /**
+     * @param capacity number of quads to make room for; the array grows when more are filled
+     */
+    public ProjectileVertices(int capacity) {
+        vertices = new float[Math.max(1, capacity) * FLOATS_PER_QUAD];
+    }
+
+    /**
+     * Replaces the contents with a quad for every object of the given type in a snapshot that
+     * overlaps the view, between its previous and current position.
+     *
+     * @param alpha how far the render time is into the next simulation step, from 0 to 1
+     * @param view  area seen by the camera, or null to fill every object
+     * @return the number of quads
+     */
+    public int fill(RenderSnapshot snapshot, GameObject.ObjectType type, TextureRegion region, float alpha,
+                    Rectangle view) {
+        byte wanted = (byte) type.ordinal();
+        float u = region.getU();
+        float u2 = region.getU2();
+        float bottomV = region.getV2();
+        float topV = region.getV();
+
+        int size = snapshot.size();
+        float[] x = snapshot.x;
+        float[] y = snapshot.y;
+        float[] prevX = snapshot.prevX;
+        float[] prevY = snapshot.prevY;
+        float[] width = snapshot.width;
+        float[] height = snapshot.height;
+        byte[] types = snapshot.type;
+
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (types[i] != wanted) {
+                continue;
+            }
+            if (view != null) {
+                float left = prevX[i] + (x[i] - prevX[i]) * alpha - width[i] / 2;
+                float bottom = prevY[i] + (y[i] - prevY[i]) * alpha - height[i] / 2;
+                if (!RenderSnapshot.overlaps(view, left, bottom, width[i], height[i])) {
+                    continue;
+                }
+            }
+            putQuad(count++, x[i], y[i], prevX[i], prevY[i], width[i], height[i], alpha, u, u2, bottomV, topV);
+        }
+        quads = count;
+        return count;
+    }
+
+    private void putQuad(int quad, float x, float y, float prevX, float prevY, float width, float height,
+                         float alpha, float u, float u2, float bottomV, float topV) {
+        if ((quad + 1) * FLOATS_PER_QUAD > vertices.length) {
+            float[] grown = new float[vertices.length * 2];
+            System.arraycopy(vertices, 0, grown, 0, quad * FLOATS_PER_QUAD);
+            vertices = grown;
+        }
+
+        // Positions are centers, quads are drawn from the bottom-left
+        float left = prevX + (x - prevX) * alpha - width / 2;
+        float bottom = prevY + (y - prevY) * alpha - height / 2;
+        float right = left + width;
+        float top = bottom + height;
+
+        float[] out = vertices;
+        int i = quad * FLOATS_PER_QUAD;
+        // Bottom-left, bottom-right, top-right
+        out[i] = left;
+        out[i + 1] = bottom;
+        out[i + 2] = u;
+        out[i + 3] = bottomV;
+        out[i + 4] = right;
+        out[i + 5] = bottom;
+        out[i + 6] = u2;
+        out[i + 7] = bottomV;
+        out[i + 8] = right;
+        out[i + 9] = top;
+        out[i + 10] = u2;
+        out[i + 11] = topV;
+        // Top-right, top-left, bottom-left
+        out[i + 12] = right;
+        out[i + 13] = top;
+        out[i + 14] = u2;
+        out[i + 15] = topV;
+        out[i + 16] = left;
+        out[i + 17] = top;
+        out[i + 18] = u;
+        out[i + 19] = topV;
+        out[i + 20] = left;
+        out[i + 21] = bottom;
+        out[i + 22] = u;
+        out[i + 23] = bottomV;
+    }
+
+    /** Returns the packed vertices; only the first {@link #getFloatCount()} are current. */
+    public float[] getVertices() {
+        return vertices;
+    }
+
+    public int getQuadCount() {
+        return quads;
+    }
+
+    public int getVertexCount() {
+        return quads * VERTICES_PER_QUAD;
+    }
+
+    public int getFloatCount() {
+        return quads * FLOATS_PER_QUAD;
+    }
+
+    /** Returns the number of quads that fit before the array has to grow. */
+    public int getCapacity() {
+        return vertices.length / FLOATS_PER_QUAD;
+    }
+}
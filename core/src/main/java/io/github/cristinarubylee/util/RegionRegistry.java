@@ -0,0 +1,55 @@
+package io.github.cristinarubylee.util;
+
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Shared sprites from the game atlas, which is packed by the {@code packTextures} Gradle task.
+ *
+ * The atlas is loaded once through the asset manager, and every lookup returns the same
+ * region instance, so all objects of a kind draw from one region on one texture.
+ */
+public class RegionRegistry {
+    public static final String ATLAS = "assets/atlas/game.atlas";
+
+    // Region names, taken from the file names of the packed sprites
+    public static final String PLAYER = "bucket";
+    public static final String PHOTON = "drop";
+    public static final String NIGHTMARE = "drop";
+
+    private final ObjectMap<String, AtlasRegion> regions;
+
+    /**
+     * Queues the atlas for loading. Every sprite in the game is on it, so it is required.
+     */
+    public static void load(AssetStreamer assets) {
+        assets.load(ATLAS, TextureAtlas.class, AssetStreamer.Priority.REQUIRED);
+    }
+
+    /**
+     * Indexes the regions of the atlas once it has finished loading.
+     */
+    public RegionRegistry(AssetManager assetManager) {
+        TextureAtlas atlas = assetManager.get(ATLAS, TextureAtlas.class);
+        Array<AtlasRegion> atlasRegions = atlas.getRegions();
+        regions = new ObjectMap<>(atlasRegions.size);
+        for (AtlasRegion region : atlasRegions) {
+            regions.put(region.name, region);
+        }
+    }
+
+    /**
+     * Returns the region with the given name.
+     */
+    public AtlasRegion get(String name) {
+        AtlasRegion region = regions.get(name);
+        if (region == null) {
+            throw new GdxRuntimeException("Region not found in " + ATLAS + ": " + name);
+        }
+        return region;
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.cristinarubylee.util;
+
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+
+/**
+ * Plays nothing, only counting what it was asked to do, so voice management can be exercised
+ * headless.
+ */
+public class StubAudioBackend implements AudioBackend {
+    private long nextId;
+    private int plays;
+    private int stops;
+    private Music music;
+
+    @Override
+    public long play(Sound sound, float volume, float pitch, float pan, boolean loop) {
+        plays++;
+        return nextId++;
+    }
+
+    @Override
+    public void stop(Sound sound, long id) {
+        stops++;
+    }
+
+    @Override
+    public void playMusic(Music music, float volume) {
+        this.music = music;
+    }
+
+    @Override
+    public void stopMusic(Music music) {
+        if (this.music == music) {
+            this.music = null;
+        }
+    }
+
+    /** Returns the number of sounds started. */
+    public int getPlays() {
+        return plays;
+    }
+
+    /** Returns the number of sounds stopped, e.g. when their voice was stolen. */
+    public int getStops() {
+        return stops;
+    }
+
+    /** Returns the music playing, or null. */
+    public Music getMusic() {
+        return music;
+    }
+}
@@ -0,0 +1,351 @@
+package io.github.cristinarubylee.util;
+
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Shares a fixed number of voices, the audio sources the backend can play at once, among the
+ * sounds of the game.
+ *
+ * Sounds are registered with how many voices they may use, how many times they may start per
+ * frame, a priority and how long they last. The returned {@link ManagedSound} is a {@link Sound}
+ * that goes through the manager, so code that plays sounds does not change. A play request over
+ * the sound's frame limit is dropped. A request over the sound's voice limit takes the sound's
+ * oldest voice. When every voice is busy, the request takes the oldest voice of the lowest
+ * priority, unless all of them have a higher priority than it, in which case it is dropped.
+ *
+ * libGDX cannot tell when a sound has finished, so a voice is considered free once its sound's
+ * registered duration has passed. Call {@link #update} once per frame. A manager is not thread-safe:
+ * sounds, music and updates must all come from one thread, the one that ticks the simulation.
+ */
+public class VoiceManager {
+    /** The number of sources the desktop backend allocates by default. */
+    public static final int DEFAULT_MAX_VOICES = 16;
+
+    private final AudioBackend backend;
+    private final int maxVoices;
+    private final Array<ManagedSound> sounds;
+
+    // Voices in use, packed at the front of the arrays
+    private final ManagedSound[] voiceSounds;
+    private final long[] voiceIds;
+    private final float[] voiceStarts;
+    private final float[] voiceEnds;
+    private int voices;
+
+    // Seconds since the manager was created
+    private float clock;
+    // Music takes a voice of its own while it plays
+    private Music music;
+    private int dropped;
+
+    /**
+     * A sound whose instances are played through a {@link VoiceManager}.
+     *
+     * Disposing it stops its voices but leaves the underlying sound to its owner, e.g. the asset manager.
+     */
+    public static class ManagedSound implements Sound {
+        private final VoiceManager manager;
+        private final Sound sound;
+        private final int maxVoices;
+        private final int maxPerFrame;
+        private final int priority;
+        private final float duration;
+
+        private int active;
+        private int playedThisFrame;
+        private int dropped;
+
+        private ManagedSound(VoiceManager manager, Sound sound, int maxVoices, int maxPerFrame, int priority,
+                             float duration) {
+            this.manager = manager;
+            this.sound = sound;
+            this.maxVoices = maxVoices;
+            this.maxPerFrame = maxPerFrame;
+            this.priority = priority;
+            this.duration = duration;
+        }
+
+        /** Returns the number of voices playing this sound. */
+        public int getActive() {
+            return active;
+        }
+
+        /** Returns the number of play requests for this sound that were dropped. */
+        public int getDropped() {
+            return dropped;
+        }
+
+        @Override
+        public long play() {
+            return play(1);
+        }
+
+        @Override
+        public long play(float volume) {
+            return play(volume, 1, 0);
+        }
+
+        @Override
+        public long play(float volume, float pitch, float pan) {
+            return manager.play(this, volume, pitch, pan, false);
+        }
+
+        @Override
+        public long loop() {
+            return loop(1);
+        }
+
+        @Override
+        public long loop(float volume) {
+            return loop(volume, 1, 0);
+        }
+
+        @Override
+        public long loop(float volume, float pitch, float pan) {
+            return manager.play(this, volume, pitch, pan, true);
+        }
+
+        @Override
+        public void stop() {
+            manager.stopAll(this);
+        }
+
+        @Override
+        public void stop(long soundId) {
+            manager.stop(this, soundId);
+        }
+
+        @Override
+        public void pause() {
+            sound.pause();
+        }
+
+        @Override
+        public void resume() {
+            sound.resume();
+        }
+
+        @Override
+        public void dispose() {
+            manager.stopAll(this);
+        }
+
+        @Override
+        public void pause(long soundId) {
+            sound.pause(soundId);
+        }
+
+        @Override
+        public void resume(long soundId) {
+            sound.resume(soundId);
+        }
+
+        @Override
+        public void setLooping(long soundId, boolean looping) {
+            sound.setLooping(soundId, looping);
+        }
+
+        @Override
+        public void setPitch(long soundId, float pitch) {
+            sound.setPitch(soundId, pitch);
+        }
+
+        @Override
+        public void setVolume(long soundId, float volume) {
+            sound.setVolume(soundId, volume);
+        }
+
+        @Override
+        public void setPan(long soundId, float pan, float volume) {
+            sound.setPan(soundId, pan, volume);
+        }
+    }
+
+    public VoiceManager(AudioBackend backend) {
+        this(backend, DEFAULT_MAX_VOICES);
+    }
+
+    /**
+     * @param maxVoices number of sounds and music that may play at once
+     */
+    public VoiceManager(AudioBackend backend, int maxVoices) {
+        this.backend = backend;
+        this.maxVoices = maxVoices;
+        sounds = new Array<>();
+        voiceSounds = new ManagedSound[maxVoices];
+        voiceIds = new long[maxVoices];
+        voiceStarts = new float[maxVoices];
+        voiceEnds = new float[maxVoices];
+    }
+
+    /**
+     * Registers a sound.
+     *
+     * @param maxVoices   most instances of the sound playing at once
+     * @param maxPerFrame most instances started in one frame
+     * @param priority    higher priorities take voices from lower ones when every voice is busy
+     * @param duration    how long the sound lasts, in seconds
+     */
+    public ManagedSound register(Sound sound, int maxVoices, int maxPerFrame, int priority, float duration) {
+        ManagedSound managed = new ManagedSound(this, sound, maxVoices, maxPerFrame, priority, duration);
+        sounds.add(managed);
+        return managed;
+    }
+
+    /**
+     * Frees the voices of sounds that have finished and starts a new frame for the per-frame limits.
+     */
+    public void update(float delta) {
+        clock += delta;
+        for (int i = 0; i < sounds.size; i++) {
+            sounds.get(i).playedThisFrame = 0;
+        }
+        for (int i = voices - 1; i >= 0; i--) {
+            if (voiceEnds[i] <= clock) {
+                remove(i);
+            }
+        }
+    }
+
+    private long play(ManagedSound sound, float volume, float pitch, float pan, boolean loop) {
+        if (sound.playedThisFrame >= sound.maxPerFrame) {
+            return drop(sound);
+        }
+
+        if (sound.active >= sound.maxVoices) {
+            // Over the sound's own limit: restart its oldest voice
+            steal(oldest(sound));
+        } else if (voices + (music != null ? 1 : 0) >= maxVoices) {
+            int victim = victim();
+            if (victim < 0 || voiceSounds[victim].priority > sound.priority) {
+                return drop(sound);
+            }
+            steal(victim);
+        }
+
+        long id = backend.play(sound.sound, volume, pitch, pan, loop);
+        if (id == -1) {
+            return drop(sound);
+        }
+        voiceSounds[voices] = sound;
+        voiceIds[voices] = id;
+        voiceStarts[voices] = clock;
+        voiceEnds[voices] = loop ? Float.POSITIVE_INFINITY : clock + sound.duration;
+        voices++;
+        sound.active++;
+        sound.playedThisFrame++;
+        return id;
+    }
+
+    private long drop(ManagedSound sound) {
+        sound.dropped++;
+        dropped++;
+        return -1;
+    }
+
+    /**
+     * Returns the oldest voice playing the given sound, or -1 if none.
+     */
+    private int oldest(ManagedSound sound) {
+        int oldest = -1;
+        for (int i = 0; i < voices; i++) {
+            if (voiceSounds[i] == sound && (oldest < 0 || voiceStarts[i] < voiceStarts[oldest])) {
+                oldest = i;
+            }
+        }
+        return oldest;
+    }
+
+    /**
+     * Returns the voice to take when every voice is busy: the oldest of the lowest priority, or -1 if none.
+     */
+    private int victim() {
+        int victim = -1;
+        for (int i = 0; i < voices; i++) {
+            if (victim < 0) {
+                victim = i;
+                continue;
+            }
+            int priority = voiceSounds[i].priority;
+            int victimPriority = voiceSounds[victim].priority;
+            if (priority < victimPriority || priority == victimPriority && voiceStarts[i] < voiceStarts[victim]) {
+                victim = i;
+            }
+        }
+        return victim;
+    }
+
+    private void steal(int voice) {
+        if (voice >= 0) {
+            backend.stop(voiceSounds[voice].sound, voiceIds[voice]);
+            remove(voice);
+        }
+    }
+
+    private void stop(ManagedSound sound, long id) {
+        for (int i = voices - 1; i >= 0; i--) {
+            if (voiceSounds[i] == sound && voiceIds[i] == id) {
+                backend.stop(sound.sound, id);
+                remove(i);
+                return;
+            }
+        }
+    }
+
+    private void stopAll(ManagedSound sound) {
+        for (int i = voices - 1; i >= 0; i--) {
+            if (voiceSounds[i] == sound) {
+                backend.stop(sound.sound, voiceIds[i]);
+                remove(i);
+            }
+        }
+    }
+
+    /**
+     * Frees a voice by moving the last one into its slot.
+     */
+    private void remove(int voice) {
+        voiceSounds[voice].active--;
+        int last = --voices;
+        voiceSounds[voice] = voiceSounds[last];
+        voiceIds[voice] = voiceIds[last];
+        voiceStarts[voice] = voiceStarts[last];
+        voiceEnds[voice] = voiceEnds[last];
+        voiceSounds[last] = null;
+    }
+
+    /**
+     * Plays music, looping, in place of any music already playing. The music keeps one voice for itself.
+     */
+    public void playMusic(Music music, float volume) {
+        stopMusic();
+        if (voices >= maxVoices) {
+            steal(victim());
+        }
+        this.music = music;
+        backend.playMusic(music, volume);
+    }
+
+    public void stopMusic() {
+        if (music != null) {
+            backend.stopMusic(music);
+            music = null;
+        }
+    }
+
+    /** Returns the number of voices in use, music included. */
+    public int getVoices() {
+        return voices + (music != null ? 1 : 0);
+    }
+
+    public int getMaxVoices() {
+        return maxVoices;
+    }
+
+    /** Returns the number of play requests dropped over all sounds. */
+    public int getDropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,277 @@
+package io.github.cristinarubylee.headless;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.backends.headless.mock.audio.MockSound;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.physics.box2d.Box2D;
+import io.github.cristinarubylee.controllers.CollisionMode;
+import io.github.cristinarubylee.controllers.GameplayController;
+import io.github.cristinarubylee.controllers.InputRecording;
+import io.github.cristinarubylee.controllers.WaveScheduler;
+import io.github.cristinarubylee.models.MotionMode;
+import io.github.cristinarubylee.models.WorldSnapshot;
+import io.github.cristinarubylee.parallel.ForkJoinRunner;
+import io.github.cristinarubylee.util.ParallelRunner;
+import io.github.cristinarubylee.util.StubAudioBackend;
+import io.github.cristinarubylee.util.VoiceManager;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs the game simulation on the headless backend as fast as possible and reports its cost.
+ *
+ * Each tick runs the same fixed step as {@link io.github.cristinarubylee.screens.GameScreen}
+ * ({@code input}, {@code logic}, {@code step}, {@code cleanupBodies}) with a fixed seed and
+ * scripted input, so two runs with the same options simulate exactly the same game.
+ * With {@code --replay FILE}, the input and seed of a recorded session are played instead, for
+ * as many ticks as were recorded, and the final state is checked against the recording.
+ *
+ * Options: {@code --ticks N} (default 36000), {@code --warmup N} (default 3600),
+ * {@code --seed N} (default 1), {@code --spawn N} formations per spawn (default 1),
+ * {@code --motion transform|kinematic} (default kinematic) and
+ * {@code --collision box2d|spatial_hash} (default spatial_hash), {@code --replay FILE} and
+ * {@code --record FILE}, which saves the measured run as a recording, and {@code --waves FILE},
+ * a wave timeline such as {@code assets/waves.json} to use instead of the built-in one.
+ * {@code --parallel N} updates formations on N worker threads once there are enough of them
+ * (default 0, serial). {@code --snapshot FILE} starts from a world snapshot instead of an empty
+ * world, and {@code --save-snapshot FILE} saves the world at the end of the measured run, so a
+ * crowded scene reached once can be benchmarked again from the start.
+ */
+public class SimulationBenchmark extends ApplicationAdapter {
+    // Play area, matching the game viewport
+    private static final float WORLD_WIDTH = 16;
+    private static final float WORLD_HEIGHT = 10;
+    // Ticks spent moving in one direction before turning around
+    private static final int SWEEP_TICKS = 90;
+
+    private final int ticks;
+    private final int warmup;
+    private final long seed;
+    private final int spawnMultiplier;
+    private final MotionMode motionMode;
+    private final CollisionMode collisionMode;
+    // Recorded session to play instead of the scripted input, or null
+    private final InputRecording replay;
+    // Where to save the input of the measured run, or null
+    private final FileHandle recordFile;
+    // Wave timeline, or null for the built-in one
+    private final FileHandle wavesFile;
+    // Worker threads for formation updates, 0 to keep them serial
+    private final int parallelism;
+    private final ParallelRunner parallel;
+    // State to start from, or null for an empty world, and where to save the final state, or null
+    private final WorldSnapshot snapshot;
+    private final FileHandle snapshotFile;
+
+    // Sounds of the simulation being run, played through the same voice limits as the game
+    private StubAudioBackend audio;
+    private VoiceManager voices;
+
+    public SimulationBenchmark(int ticks, int warmup, long seed, int spawnMultiplier, MotionMode motionMode,
+                               CollisionMode collisionMode, InputRecording replay, FileHandle recordFile,
+                               FileHandle wavesFile, int parallelism, WorldSnapshot snapshot,
+                               FileHandle snapshotFile) {
+        this.ticks = replay != null ? replay.size() : ticks;
+        this.warmup = warmup;
+        this.seed = replay != null ? replay.getSeed() : seed;
+        this.replay = replay;
+        this.recordFile = recordFile;
+        this.wavesFile = wavesFile;
+        this.spawnMultiplier = spawnMultiplier;
+        this.motionMode = motionMode;
+        this.collisionMode = collisionMode;
+        this.parallelism = parallelism;
+        parallel = parallelism > 0 ? new ForkJoinRunner(new ForkJoinPool(parallelism)) : ParallelRunner.SERIAL;
+        this.snapshot = snapshot;
+        this.snapshotFile = snapshotFile;
+    }
+
+    public static void main(String[] args) {
+        int ticks = 36000;
+        int warmup = 3600;
+        long seed = 1;
+        int spawn = 1;
+        MotionMode motion = MotionMode.KINEMATIC;
+        CollisionMode collision = CollisionMode.SPATIAL_HASH;
+        InputRecording replay = null;
+        FileHandle record = null;
+        FileHandle waves = null;
+        int parallelism = 0;
+        WorldSnapshot snapshot = null;
+        FileHandle snapshotFile = null;
+
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            switch (args[i]) {
+                case "--ticks":
+                    ticks = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[i + 1]);
+                    break;
+                case "--spawn":
+                    spawn = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--motion":
+                    motion = MotionMode.valueOf(args[i + 1].toUpperCase());
+                    break;
+                case "--collision":
+                    collision = CollisionMode.valueOf(args[i + 1].toUpperCase());
+                    break;
+                case "--replay":
+                    replay = InputRecording.read(new FileHandle(args[i + 1]));
+                    if (replay.size() == 0) {
+                        throw new IllegalArgumentException("Recording has no ticks: " + args[i + 1]);
+                    }
+                    break;
+                case "--record":
+                    record = new FileHandle(args[i + 1]);
+                    break;
+                case "--waves":
+                    waves = new FileHandle(args[i + 1]);
+                    break;
+                case "--parallel":
+                    parallelism = Integer.parseInt(args[i + 1]);
+                    break;
+                case "--snapshot":
+                    snapshot = WorldSnapshot.read(new FileHandle(args[i + 1]));
+                    break;
+                case "--save-snapshot":
+                    snapshotFile = new FileHandle(args[i + 1]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        HeadlessApplicationConfiguration configuration = new HeadlessApplicationConfiguration();
+        // Everything happens in create(), so don't spend time in the render loop
+        configuration.updatesPerSecond = -1;
+        new HeadlessApplication(new SimulationBenchmark(ticks, warmup, seed, spawn, motion, collision, replay, record, waves,
+            parallelism, snapshot, snapshotFile),
+            configuration);
+    }
+
+    @Override
+    public void create() {
+        Box2D.init();
+
+        // Warm up the JIT on a separate simulation with the same settings
+        GameplayController warm = createSimulation();
+        for (int tick = 0; tick < warmup; tick++) {
+            tick(warm, tick, null);
+        }
+        warm.dispose();
+
+        GameplayController gameplay = createSimulation();
+        InputRecording recording = recordFile != null ? new InputRecording(seed) : null;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        long[] times = new long[ticks];
+        int peakBodies = 0;
+        int peakFormations = 0;
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int tick = 0; tick < ticks; tick++) {
+            long tickStart = System.nanoTime();
+            tick(gameplay, tick, recording);
+            times[tick] = System.nanoTime() - tickStart;
+
+            peakBodies = Math.max(peakBodies, gameplay.getLiveBodyCount());
+            peakFormations = Math.max(peakFormations, gameplay.getFormationCount());
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        Arrays.sort(times);
+        System.out.printf("seed=%d spawn=%d motion=%s collision=%s parallel=%d ticks=%d%n",
+            seed, spawnMultiplier, motionMode, collisionMode, parallelism, ticks);
+        System.out.printf("ticks/s:        %.0f%n", ticks / (elapsed / 1e9));
+        System.out.printf("p50 tick:       %.3f ms%n", percentile(times, 0.50) / 1e6);
+        System.out.printf("p99 tick:       %.3f ms%n", percentile(times, 0.99) / 1e6);
+        System.out.printf("max tick:       %.3f ms%n", times[times.length - 1] / 1e6);
+        System.out.printf("allocated:      %d bytes (%.1f per tick)%n", allocated, (double) allocated / ticks);
+        System.out.printf("peak bodies:    %d live, %d in world at end%n", peakBodies, gameplay.getWorld().getBodyCount());
+        System.out.printf("peak formations: %d%n", peakFormations);
+        System.out.printf("player health:  %d%n", gameplay.getPlayer().getCurrHealth());
+        System.out.printf("sounds:         %d played, %d dropped, %d stolen%n",
+            audio.getPlays(), voices.getDropped(), audio.getStops());
+        System.out.printf("state hash:     %d%n", gameplay.getStateHash());
+        if (replay != null && replay.getStateHash() != 0) {
+            System.out.printf("replay:         %s%n",
+                replay.getStateHash() == gameplay.getStateHash() ? "matches recording" : "DIVERGED from recording");
+        }
+        if (recording != null) {
+            recording.setStateHash(gameplay.getStateHash());
+            recording.write(recordFile);
+            System.out.printf("recorded:       %d ticks to %s%n", recording.size(), recordFile);
+        }
+        if (snapshotFile != null) {
+            WorldSnapshot saved = new WorldSnapshot();
+            gameplay.save(saved);
+            saved.write(snapshotFile);
+            System.out.printf("snapshot:       %d bytes to %s%n", saved.size(), snapshotFile);
+        }
+
+        gameplay.dispose();
+        Gdx.app.exit();
+    }
+
+    private GameplayController createSimulation() {
+        audio = new StubAudioBackend();
+        voices = new VoiceManager(audio);
+        VoiceManager.ManagedSound photonSound = voices.register(new MockSound(), 4, 1, 0, 0.3f);
+        GameplayController gameplay = new GameplayController(WORLD_WIDTH, WORLD_HEIGHT,
+            null, null, null, photonSound, seed, motionMode, collisionMode);
+        gameplay.setSpawnMultiplier(spawnMultiplier);
+        gameplay.setParallelRunner(parallel);
+        if (wavesFile != null) {
+            gameplay.setWaves(WaveScheduler.load(wavesFile));
+        }
+        // The snapshot brings its own timeline
+        if (snapshot != null) {
+            gameplay.restore(snapshot);
+        }
+        return gameplay;
+    }
+
+    /**
+     * Runs one simulation tick with the replayed input, wrapping around for the warm-up, or
+     * with scripted input: sweep up and down while firing.
+     *
+     * @param recording recording to append the input to, or null
+     */
+    private void tick(GameplayController gameplay, int tick, InputRecording recording) {
+        float movement;
+        boolean fire;
+        if (replay != null) {
+            movement = replay.getMovement(tick % replay.size());
+            fire = replay.didPressFire(tick % replay.size());
+        } else {
+            movement = (tick / SWEEP_TICKS) % 2 == 0 ? 1 : -1;
+            fire = true;
+        }
+        if (recording != null) {
+            recording.add(movement, fire);
+        }
+        gameplay.tick(movement, fire);
+        voices.update(GameplayController.TIME_STEP);
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,145 @@
+package io.github.cristinarubylee.headless;
+
+import com.badlogic.gdx.backends.headless.mock.audio.MockMusic;
+import com.badlogic.gdx.backends.headless.mock.audio.MockSound;
+import io.github.cristinarubylee.util.StubAudioBackend;
+import io.github.cristinarubylee.util.VoiceManager;
+import io.github.cristinarubylee.util.VoiceManager.ManagedSound;
+
+/**
+ * Checks the voice limits of {@link VoiceManager} against a {@link StubAudioBackend}, without an
+ * audio device: per-sound and per-frame limits, stealing by priority and age, voices freed when
+ * sounds end, and the voice music keeps.
+ *
+ * Prints each failed expectation and exits with status 1 if there were any, so it can run in a build.
+ */
+public class VoiceCheck {
+    private static final float FRAME = 1 / 60f;
+
+    private int failures;
+
+    public static void main(String[] args) {
+        VoiceCheck check = new VoiceCheck();
+        check.soundLimit();
+        check.frameLimit();
+        check.priority();
+        check.duration();
+        check.music();
+        if (check.failures > 0) {
+            System.out.printf("voices:         %d checks FAILED%n", check.failures);
+            System.exit(1);
+        }
+        System.out.println("voices:         all checks passed");
+    }
+
+    private void expect(String what, long expected, long actual) {
+        if (expected != actual) {
+            System.out.printf("%s: expected %d, got %d%n", what, expected, actual);
+            failures++;
+        }
+    }
+
+    /** A sound over its own voice limit restarts its oldest voice. */
+    private void soundLimit() {
+        StubAudioBackend audio = new StubAudioBackend();
+        VoiceManager voices = new VoiceManager(audio, 8);
+        ManagedSound sound = voices.register(new MockSound(), 2, 4, 0, 10);
+
+        long first = sound.play();
+        voices.update(FRAME);
+        long second = sound.play();
+        voices.update(FRAME);
+        sound.play();
+        expect("sound limit: active", 2, sound.getActive());
+        expect("sound limit: stolen", 1, audio.getStops());
+        expect("sound limit: dropped", 0, voices.getDropped());
+
+        // The oldest voice was the one taken, so stopping it again does nothing
+        sound.stop(first);
+        expect("sound limit: oldest stolen", 1, audio.getStops());
+        sound.stop(second);
+        expect("sound limit: newer kept", 2, audio.getStops());
+    }
+
+    /** Starts over a sound's frame limit are dropped until the next frame. */
+    private void frameLimit() {
+        StubAudioBackend audio = new StubAudioBackend();
+        VoiceManager voices = new VoiceManager(audio, 8);
+        ManagedSound sound = voices.register(new MockSound(), 4, 1, 0, 10);
+
+        sound.play();
+        expect("frame limit: second start", -1, sound.play());
+        expect("frame limit: dropped", 1, sound.getDropped());
+        voices.update(FRAME);
+        expect("frame limit: next frame", 1, sound.play() >= 0 ? 1 : 0);
+        expect("frame limit: played", 2, audio.getPlays());
+    }
+
+    /**
+     * With every voice busy, a sound takes the oldest voice of the lowest priority, and is dropped
+     * when all of them are more important than it.
+     */
+    private void priority() {
+        StubAudioBackend audio = new StubAudioBackend();
+        VoiceManager voices = new VoiceManager(audio, 3);
+        ManagedSound low = voices.register(new MockSound(), 3, 3, 0, 10);
+        ManagedSound high = voices.register(new MockSound(), 3, 3, 1, 10);
+
+        long oldest = low.play();
+        voices.update(FRAME);
+        low.play();
+        low.play();
+        high.play();
+        expect("priority: voices", 3, voices.getVoices());
+        expect("priority: low active", 2, low.getActive());
+        expect("priority: high active", 1, high.getActive());
+        low.stop(oldest);
+        expect("priority: oldest stolen", 1, audio.getStops());
+
+        low.play();
+        high.play();
+        high.play();
+        expect("priority: high took every voice", 3, high.getActive());
+        voices.update(FRAME);
+        expect("priority: low dropped", -1, low.play());
+        expect("priority: dropped", 1, voices.getDropped());
+    }
+
+    /** A voice is free again once its sound's duration has passed. */
+    private void duration() {
+        StubAudioBackend audio = new StubAudioBackend();
+        VoiceManager voices = new VoiceManager(audio, 1);
+        ManagedSound sound = voices.register(new MockSound(), 1, 1, 0, 0.5f);
+
+        sound.play();
+        voices.update(0.25f);
+        expect("duration: still playing", 1, voices.getVoices());
+        voices.update(0.25f);
+        expect("duration: finished", 0, voices.getVoices());
+        expect("duration: not stopped", 0, audio.getStops());
+    }
+
+    /** Music keeps a voice for itself, taking one from the sounds if none is free. */
+    private void music() {
+        StubAudioBackend audio = new StubAudioBackend();
+        VoiceManager voices = new VoiceManager(audio, 2);
+        ManagedSound sound = voices.register(new MockSound(), 2, 2, 0, 10);
+        MockMusic music = new MockMusic();
+
+        sound.play();
+        sound.play();
+        voices.playMusic(music, 1);
+        expect("music: playing", 1, audio.getMusic() == music ? 1 : 0);
+        expect("music: voice taken", 1, audio.getStops());
+        expect("music: voices", 2, voices.getVoices());
+
+        voices.update(FRAME);
+        sound.play();
+        expect("music: sound restarted its voice", 2, audio.getStops());
+        expect("music: sound active", 1, sound.getActive());
+
+        voices.stopMusic();
+        expect("music: stopped", 0, audio.getMusic() == null ? 0 : 1);
+        expect("music: voice freed", 1, voices.getVoices());
+    }
+}
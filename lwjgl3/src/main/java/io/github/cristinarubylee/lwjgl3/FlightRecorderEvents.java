@@ -0,0 +1,145 @@
+package io.github.cristinarubylee.lwjgl3;
+
+import io.github.cristinarubylee.controllers.GameplayEvents;
+import io.github.cristinarubylee.models.GameObject;
+import io.github.cristinarubylee.models.NightmareQueue;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Records simulation events with Java Flight Recorder, next to the JVM's own events.
+ *
+ * Every method first asks a shared, never committed instance whether its event type is enabled,
+ * so when no recording is running, or the recording leaves these events off, nothing is allocated
+ * and no fields are filled in. {@code lwjgl3/dreamscape.jfc} enables all of them.
+ */
+public class FlightRecorderEvents implements GameplayEvents {
+
+    @Name("dreamscape.FormationSpawn")
+    @Label("Formation Spawn")
+    @Category({"DreamScape", "Nightmares"})
+    @Description("A formation of nightmares has been spawned")
+    static class FormationSpawnEvent extends Event {
+        @Label("Formation Type")
+        String formationType;
+
+        @Label("Members")
+        int members;
+
+        @Label("Formations In Play")
+        int formations;
+    }
+
+    @Name("dreamscape.PhotonFire")
+    @Label("Photon Fire")
+    @Category({"DreamScape", "Photons"})
+    @Description("The player has fired a photon")
+    static class PhotonFireEvent extends Event {
+        @Label("Photons In Flight")
+        int photons;
+    }
+
+    @Name("dreamscape.Contact")
+    @Label("Contact")
+    @Category({"DreamScape", "Collisions"})
+    @Description("A contact between two objects has been resolved")
+    static class ContactEvent extends Event {
+        @Label("Type A")
+        String typeA;
+
+        @Label("Type B")
+        String typeB;
+    }
+
+    @Name("dreamscape.BodyDestroy")
+    @Label("Body Destroy")
+    @Category({"DreamScape", "Physics"})
+    @Description("Destroyed objects have been returned to their pools at the end of a step")
+    static class BodyDestroyEvent extends Event {
+        @Label("Photons")
+        int photons;
+
+        @Label("Nightmares")
+        int nightmares;
+    }
+
+    @Name("dreamscape.PhysicsStep")
+    @Label("Physics Step")
+    @Category({"DreamScape", "Physics"})
+    @Description("One step of the Box2D world")
+    static class PhysicsStepEvent extends Event {
+        @Label("Bodies")
+        int bodies;
+    }
+
+    // Only asked whether their type is enabled
+    private static final FormationSpawnEvent FORMATION_SPAWN = new FormationSpawnEvent();
+    private static final PhotonFireEvent PHOTON_FIRE = new PhotonFireEvent();
+    private static final ContactEvent CONTACT = new ContactEvent();
+    private static final BodyDestroyEvent BODY_DESTROY = new BodyDestroyEvent();
+    private static final PhysicsStepEvent PHYSICS_STEP = new PhysicsStepEvent();
+
+    // Step in progress, if its event is enabled
+    private PhysicsStepEvent step;
+
+    @Override
+    public void formationSpawned(NightmareQueue.NightmareType type, int members, int formations) {
+        if (FORMATION_SPAWN.isEnabled()) {
+            FormationSpawnEvent event = new FormationSpawnEvent();
+            event.formationType = type.name();
+            event.members = members;
+            event.formations = formations;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void photonFired(int photons) {
+        if (PHOTON_FIRE.isEnabled()) {
+            PhotonFireEvent event = new PhotonFireEvent();
+            event.photons = photons;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void contactResolved(GameObject.ObjectType typeA, GameObject.ObjectType typeB) {
+        if (CONTACT.isEnabled()) {
+            ContactEvent event = new ContactEvent();
+            event.typeA = typeA.name();
+            event.typeB = typeB.name();
+            event.commit();
+        }
+    }
+
+    @Override
+    public void bodiesDestroyed(int photons, int nightmares) {
+        if (BODY_DESTROY.isEnabled()) {
+            BodyDestroyEvent event = new BodyDestroyEvent();
+            event.photons = photons;
+            event.nightmares = nightmares;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void stepStarted() {
+        if (PHYSICS_STEP.isEnabled()) {
+            step = new PhysicsStepEvent();
+            step.begin();
+        }
+    }
+
+    @Override
+    public void stepFinished(int bodies) {
+        if (step != null) {
+            step.end();
+            step.bodies = bodies;
+            step.commit();
+            step = null;
+        }
+    }
+}
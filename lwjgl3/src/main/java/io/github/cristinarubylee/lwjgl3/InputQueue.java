@@ -0,0 +1,74 @@
+package io.github.cristinarubylee.lwjgl3;
+
+import io.github.cristinarubylee.controllers.InputSource;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Input handed from the render thread to the simulation thread without locks.
+ *
+ * A ring with one producer and one consumer: the render thread offers a sample every frame and
+ * the simulation thread drains them at every tick. Each side only writes its own index, so neither
+ * ever waits. A tick moves as the latest sample says and fires if any sample since the previous
+ * tick did, so a tap shorter than a tick is not lost. Without new samples, the last input is held.
+ */
+class InputQueue implements InputSource {
+    // A power of two, far more frames than the simulation should ever fall behind by
+    private static final int CAPACITY = 64;
+    private static final int MASK = CAPACITY - 1;
+
+    private final float[] movements = new float[CAPACITY];
+    private final boolean[] fires = new boolean[CAPACITY];
+    // Next sample to read, written by the simulation thread, and next to write, by the render thread
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    // Input of the current tick, only touched by the simulation thread
+    private float movement;
+    private boolean fire;
+
+    /**
+     * Adds a sample. Call from the render thread.
+     *
+     * @return false if the queue is full, in which case the sample is dropped
+     */
+    boolean offer(float movement, boolean fire) {
+        long write = tail.get();
+        if (write - head.get() == CAPACITY) {
+            return false;
+        }
+        int index = (int) write & MASK;
+        movements[index] = movement;
+        fires[index] = fire;
+        // Publishes the sample; no full fence is needed with a single producer
+        tail.lazySet(write + 1);
+        return true;
+    }
+
+    @Override
+    public boolean nextTick() {
+        long read = head.get();
+        long write = tail.get();
+        if (read != write) {
+            boolean fired = false;
+            for (; read < write; read++) {
+                int index = (int) read & MASK;
+                movement = movements[index];
+                fired |= fires[index];
+            }
+            fire = fired;
+            head.lazySet(write);
+        }
+        return true;
+    }
+
+    @Override
+    public float getMovement() {
+        return movement;
+    }
+
+    @Override
+    public boolean didPressFire() {
+        return fire;
+    }
+}
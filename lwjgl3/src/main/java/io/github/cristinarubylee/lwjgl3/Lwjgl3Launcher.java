@@ -2,17 +2,50 @@ package io.github.cristinarubylee.lwjgl3;
 
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
+import com.badlogic.gdx.files.FileHandle;
 import io.github.cristinarubylee.GDXRoot;
+import io.github.cristinarubylee.parallel.ForkJoinRunner;
 
-/** Launches the desktop (LWJGL3) application. */
+/**
+ * Launches the desktop (LWJGL3) application.
+ *
+ * Options: {@code --record FILE} records the input of the game to a file when it exits, and
+ * {@code --replay FILE} plays a recording instead of live input and exits at its end.
+ * {@code --simulation threaded} ticks the simulation on a thread of its own instead of in the
+ * render loop; {@code serial}, the default, keeps it in the render loop.
+ */
 public class Lwjgl3Launcher {
     public static void main(String[] args) {
         if (StartupHelper.startNewJvmIfRequired()) return; // This handles macOS support and helps on Windows.
-        createApplication();
+        createApplication(args);
     }
 
-    private static Lwjgl3Application createApplication() {
-        return new Lwjgl3Application(new GDXRoot(), getDefaultConfiguration());
+    private static Lwjgl3Application createApplication(String[] args) {
+        GDXRoot game = new GDXRoot(new FlightRecorderEvents());
+        game.parallel = new ForkJoinRunner();
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            switch (args[i]) {
+                case "--record":
+                    game.recordFile = new FileHandle(args[i + 1]);
+                    break;
+                case "--replay":
+                    game.replayFile = new FileHandle(args[i + 1]);
+                    break;
+                case "--simulation":
+                    if (args[i + 1].equals("threaded")) {
+                        game.simulationThread = ThreadedSimulation::start;
+                    } else if (!args[i + 1].equals("serial")) {
+                        throw new IllegalArgumentException("Unknown simulation mode " + args[i + 1]);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        return new Lwjgl3Application(game, getDefaultConfiguration());
     }
 
     private static Lwjgl3ApplicationConfiguration getDefaultConfiguration() {
@@ -0,0 +1,188 @@
+package io.github.cristinarubylee.lwjgl3;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import io.github.cristinarubylee.controllers.GameplayController;
+import io.github.cristinarubylee.controllers.InputPlayback;
+import io.github.cristinarubylee.controllers.InputRecorder;
+import io.github.cristinarubylee.controllers.InputRecording;
+import io.github.cristinarubylee.controllers.InputSource;
+import io.github.cristinarubylee.controllers.SimulationThread;
+import io.github.cristinarubylee.models.RenderSnapshot;
+import io.github.cristinarubylee.models.WorldSnapshot;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ticks the simulation on a dedicated thread at the fixed step, and publishes a snapshot after every tick.
+ *
+ * Snapshots are exchanged without locks through three buffers: the one the render thread draws,
+ * the latest one published, and the one being captured. Publishing swaps the captured buffer with
+ * the published one, and the render thread swaps its buffer with the published one when a newer
+ * one is there, so the simulation never waits for a frame to finish and a frame never sees a
+ * snapshot half captured. Input comes in through an {@link InputQueue}.
+ */
+public class ThreadedSimulation implements SimulationThread, Runnable {
+    private static final long TICK_NANOS = (long) (GameplayController.TIME_STEP * 1_000_000_000L);
+    // Most ticks the simulation runs back to back before it drops the time it could not catch up on
+    private static final int MAX_TICKS_BEHIND = 5;
+    // How long a paused simulation sleeps between checks
+    private static final long PAUSE_NANOS = 10_000_000L;
+    // Marks the published buffer as not yet taken by the render thread
+    private static final int FRESH = 4;
+    private static final int INDEX = 3;
+
+    private final GameplayController gameplay;
+    private final InputQueue queue;
+    private final InputSource input;
+    private final Runnable afterTick;
+    private final Thread thread;
+
+    // Snapshot buffers and when each was captured, in nanoseconds
+    private final RenderSnapshot[] snapshots;
+    private final long[] capturedAt;
+    // Published buffer, with FRESH set until the render thread takes it
+    private final AtomicInteger published;
+    // Buffer being captured, only touched by the simulation thread
+    private int back;
+    // Buffer being drawn, only touched by the render thread
+    private int front;
+
+    // Snapshot to restore before the next tick, or null
+    private final AtomicReference<WorldSnapshot> pendingRestore = new AtomicReference<>();
+
+    private volatile boolean running;
+    private volatile boolean paused;
+    private volatile boolean finished;
+    private volatile Throwable failure;
+
+    /**
+     * Starts ticking a simulation; see {@link SimulationThread.Factory#start}.
+     */
+    public static SimulationThread start(GameplayController gameplay, InputRecording replay,
+                                         InputRecording recording, Runnable afterTick) {
+        ThreadedSimulation simulation = new ThreadedSimulation(gameplay, replay, recording, afterTick);
+        simulation.thread.start();
+        return simulation;
+    }
+
+    private ThreadedSimulation(GameplayController gameplay, InputRecording replay, InputRecording recording,
+                               Runnable afterTick) {
+        this.gameplay = gameplay;
+        this.afterTick = afterTick;
+        queue = new InputQueue();
+        InputSource source = replay != null ? new InputPlayback(replay) : queue;
+        input = recording != null ? new InputRecorder(source, recording) : source;
+
+        snapshots = new RenderSnapshot[3];
+        capturedAt = new long[3];
+        for (int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = new RenderSnapshot();
+        }
+        // Start with the initial state in front, so there is something to draw before the first tick
+        front = 0;
+        published = new AtomicInteger(1);
+        back = 2;
+        gameplay.capture(snapshots[front]);
+        capturedAt[front] = System.nanoTime();
+
+        running = true;
+        thread = new Thread(this, "Simulation");
+        thread.setDaemon(true);
+    }
+
+    @Override
+    public void run() {
+        try {
+            long next = System.nanoTime();
+            while (running) {
+                if (paused) {
+                    LockSupport.parkNanos(PAUSE_NANOS);
+                    next = System.nanoTime();
+                    continue;
+                }
+                long now = System.nanoTime();
+                if (now < next) {
+                    LockSupport.parkNanos(next - now);
+                    continue;
+                }
+
+                WorldSnapshot restore = pendingRestore.getAndSet(null);
+                if (restore != null) {
+                    gameplay.restore(restore);
+                }
+                if (!input.nextTick()) {
+                    finished = true;
+                    return;
+                }
+                gameplay.tick(input.getMovement(), input.didPressFire());
+                afterTick.run();
+                publish();
+
+                // After a long hitch, drop the time we could not catch up on instead of spiralling
+                next += TICK_NANOS;
+                if (now - next >= MAX_TICKS_BEHIND * TICK_NANOS) {
+                    next = now;
+                }
+            }
+        } catch (Throwable t) {
+            failure = t;
+        }
+    }
+
+    private void publish() {
+        gameplay.capture(snapshots[back]);
+        capturedAt[back] = System.nanoTime();
+        back = published.getAndSet(back | FRESH) & INDEX;
+    }
+
+    @Override
+    public void submit(float movement, boolean fire) {
+        queue.offer(movement, fire);
+    }
+
+    @Override
+    public RenderSnapshot getSnapshot() {
+        Throwable t = failure;
+        if (t != null) {
+            throw new GdxRuntimeException("Simulation thread failed", t);
+        }
+        if ((published.get() & FRESH) != 0) {
+            front = published.getAndSet(front) & INDEX;
+        }
+        return snapshots[front];
+    }
+
+    @Override
+    public float getAlpha() {
+        float alpha = (float) (System.nanoTime() - capturedAt[front]) / TICK_NANOS;
+        return Math.min(1, Math.max(0, alpha));
+    }
+
+    @Override
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    @Override
+    public void restore(WorldSnapshot snapshot) {
+        pendingRestore.set(snapshot);
+    }
+
+    @Override
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public void dispose() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
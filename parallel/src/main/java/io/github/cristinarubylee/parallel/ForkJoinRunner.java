@@ -0,0 +1,68 @@
+package io.github.cristinarubylee.parallel;
+
+import io.github.cristinarubylee.util.ParallelRunner;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs loops on a {@link ForkJoinPool}, splitting them in halves down to the grain.
+ *
+ * The desktop launcher hands it to the game through
+ * {@link io.github.cristinarubylee.GDXRoot#parallel}, so the shared code never touches threads.
+ * The benchmarks measure this same runner. Splitting creates a few small tasks per call. That is
+ * why callers only come here once a loop is large enough to gain from it.
+ */
+public class ForkJoinRunner implements ParallelRunner {
+    private final ForkJoinPool pool;
+
+    /**
+     * Runs loops on the common pool, which has a thread per core but one.
+     */
+    public ForkJoinRunner() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ForkJoinRunner(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void run(int count, int grain, RangeTask task) {
+        if (count <= grain) {
+            task.run(0, count);
+            return;
+        }
+        pool.invoke(new Range(task, 0, count, Math.max(1, grain)));
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    private static class Range extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RangeTask task;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        Range(RangeTask task, int from, int to, int grain) {
+            this.task = task;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                task.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Range(task, from, middle, grain), new Range(task, middle, to, grain));
+        }
+    }
+}